@@ -0,0 +1,66 @@
+package com.nahid.main;
+
+import com.nahid.main.service.StoryService;
+import com.nahid.main.util.TextCompression;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the real application for benchmarks that need Spring Data, Hibernate or the MVC stack,
+ * each on its own in-memory H2 database, and fills it with generated stories.
+ */
+public final class BenchmarkApplication {
+
+    /** Distinct authors of generated stories, so a dashboard holds about {@code stories / AUTHORS} of them. */
+    public static final int AUTHORS = 10_000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, WebApplicationType webApplicationType,
+                                                       String... properties) {
+        return new SpringApplicationBuilder(UntoldStoriesApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Inserts {@code count} stories, one second apart and ending now, with plain JDBC batches,
+     * then refreshes H2's statistics so plans match a loaded database.
+     */
+    public static void insertStories(ConfigurableApplicationContext context, int count, long seed) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        StoryGenerator generator = new StoryGenerator(seed);
+        LocalDateTime start = LocalDateTime.now().minusSeconds(count);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            String description = generator.sentence(40);
+            Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i));
+            batch.add(new Object[]{UUID.randomUUID(), generator.storyFor(), generator.storyBy(AUTHORS),
+                    generator.sentence(3), TextCompression.compress(description), StoryService.truncateDescription(description),
+                    generator.isPositive(), createdAt, createdAt});
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into story_table (story_id, story_for, story_by, title, description, "
+                        + "excerpt, is_positive, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("analyze");
+    }
+}
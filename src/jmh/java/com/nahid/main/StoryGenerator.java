@@ -0,0 +1,66 @@
+package com.nahid.main;
+
+import java.util.Random;
+
+/**
+ * Deterministic fake story content for the benchmarks: pronounceable names and sentences
+ * drawn from a fixed vocabulary, so runs with the same seed load the same data.
+ */
+public final class StoryGenerator {
+
+    private static final String CONSONANTS = "bcdfghjklmnprstvz";
+    private static final String VOWELS = "aeiou";
+
+    private final Random random;
+    private final String[] names;
+    private final String[] vocabulary;
+
+    public StoryGenerator(long seed) {
+        random = new Random(seed);
+        names = new String[2000];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = word(3);
+        }
+        vocabulary = new String[5000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(2 + random.nextInt(3));
+        }
+    }
+
+    /** Lower-case names the {@link #storyFor()} values are built from, usable as search queries. */
+    public String[] getNames() {
+        return names;
+    }
+
+    public String storyFor() {
+        String name = names[random.nextInt(names.length)];
+        return (random.nextBoolean() ? "Mr. " : "Ms. ") + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /** One of {@code authors} distinct story authors. */
+    public String storyBy(int authors) {
+        return "author-" + random.nextInt(authors);
+    }
+
+    public boolean isPositive() {
+        return random.nextBoolean();
+    }
+
+    public String sentence(int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) builder.append(' ');
+            builder.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return builder.toString();
+    }
+
+    private String word(int syllables) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            builder.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            builder.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+        }
+        return builder.toString();
+    }
+}
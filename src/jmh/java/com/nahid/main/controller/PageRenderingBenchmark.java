@@ -0,0 +1,78 @@
+package com.nahid.main.controller;
+
+import com.nahid.main.BenchmarkApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Full server-side rendering of {@code home-page} and {@code story-page} for an anonymous
+ * visitor: security filter chain, controller, service and Thymeleaf, without the network.
+ *
+ * <p>{@code fragmentCache=false} renders every story fragment on each request, which shows
+ * what {@code StoryFragmentCache} saves.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 3, time = 2)
+public class PageRenderingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean fragmentCache;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String storyPath;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("rendering-benchmark", WebApplicationType.SERVLET,
+                "fragment-cache.enabled=" + fragmentCache);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        UUID storyId = context.getBean(JdbcTemplate.class)
+                .queryForObject("select story_id from story_table order by created_at desc limit 1", UUID.class);
+        storyPath = "/story/" + storyId;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String homePage() throws Exception {
+        return mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String storyPage() throws Exception {
+        return mockMvc.perform(get(storyPath)).andReturn().getResponse().getContentAsString();
+    }
+}
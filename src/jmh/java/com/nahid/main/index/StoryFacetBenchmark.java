@@ -0,0 +1,154 @@
+package com.nahid.main.index;
+
+import com.nahid.main.StoryGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares facet counts and a filtered feed page answered by {@link StoryFacetIndex} with the
+ * SQL they would otherwise take: {@code GROUP BY} counts of sentiments and names, and a page of
+ * ids filtered on both facets, against the same H2 table.
+ *
+ * <p>Setup prints the approximate heap taken by the facet bitmaps. Run with {@code ./gradlew jmh}
+ * or, for a smaller table,
+ * {@code java -jar build/libs/untold-stories-0.0.1-SNAPSHOT-jmh.jar StoryFacetBenchmark -p stories=100000}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class StoryFacetBenchmark {
+
+    private static final int PAGE_SIZE = 4;
+
+    @Param({"1000000"})
+    public int stories;
+
+    private Connection connection;
+    private PreparedStatement sentimentCounts;
+    private PreparedStatement nameCounts;
+    private PreparedStatement filteredPage;
+    private StoryFacetIndex index;
+    private String[] names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        StoryGenerator generator = new StoryGenerator(42);
+        Set<String> storyFors = new LinkedHashSet<>();
+
+        // Otherwise H2 would answer the repeated GROUP BY from its last result
+        connection = DriverManager.getConnection("jdbc:h2:mem:facet-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table story_table (story_id uuid primary key, story_for varchar(255), "
+                    + "is_positive boolean, created_at timestamp(6))");
+            statement.execute("create index story_for_created_at on story_table (story_for, created_at)");
+        }
+
+        index = new StoryFacetIndex();
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into story_table (story_id, story_for, is_positive, created_at) values (?, ?, ?, ?)")) {
+            for (int i = 0; i < stories; i++) {
+                UUID storyId = UUID.randomUUID();
+                String storyFor = generator.storyFor();
+                storyFors.add(storyFor);
+                boolean isPositive = generator.isPositive();
+                insert.setObject(1, storyId);
+                insert.setString(2, storyFor);
+                insert.setBoolean(3, isPositive);
+                insert.setTimestamp(4, Timestamp.valueOf(start.plusSeconds(i)));
+                insert.addBatch();
+                index.add(storyId, storyFor, isPositive);
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        names = storyFors.toArray(String[]::new);
+        System.out.printf("%n%d stories, %d names: facet index takes about %d KB%n",
+                stories, names.length, index.estimateMemory() / 1024);
+
+        sentimentCounts = connection.prepareStatement("select is_positive, count(*) from story_table group by is_positive");
+        nameCounts = connection.prepareStatement("select story_for, count(*) from story_table where is_positive = ? "
+                + "group by story_for order by count(*) desc fetch first 10 rows only");
+        filteredPage = connection.prepareStatement("select story_id from story_table where story_for = ? and is_positive = ? "
+                + "order by created_at desc offset ? rows fetch first ? rows only");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void groupByCounts(Blackhole blackhole) throws SQLException {
+        consume(sentimentCounts, blackhole);
+        nameCounts.setBoolean(1, true);
+        consume(nameCounts, blackhole);
+    }
+
+    @Benchmark
+    public StoryFacetIndex.Facets facetCounts() {
+        return index.select(true, null).getFacets();
+    }
+
+    @Benchmark
+    public void sqlFilteredPage(Blackhole blackhole) throws SQLException {
+        filteredPage.setString(1, nextName());
+        filteredPage.setBoolean(2, true);
+        filteredPage.setInt(3, 5 * PAGE_SIZE);
+        filteredPage.setInt(4, PAGE_SIZE);
+        consume(filteredPage, blackhole);
+    }
+
+    @Benchmark
+    public StorySearchIndex.Hits bitmapFilteredPage() {
+        return index.find(index.select(true, nextName()), 5 * PAGE_SIZE, PAGE_SIZE);
+    }
+
+    private String nextName() {
+        next = (next + 1) % names.length;
+        return names[next];
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getObject(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.nahid.main.index;
+
+import com.nahid.main.StoryGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link StoryForSuggestionIndex#suggest(String, int)} for prefixes of one to four
+ * characters, as typed into the search box, and of counting a new story. The heap estimate is
+ * printed after setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class StoryForSuggestionBenchmark {
+
+    @Param({"1000000"})
+    public int stories;
+
+    private StoryForSuggestionIndex index;
+    private StoryGenerator generator;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new StoryGenerator(42);
+        index = new StoryForSuggestionIndex();
+        for (int i = 0; i < stories; i++) {
+            index.add(UUID.randomUUID(), generator.storyFor());
+        }
+
+        String[] names = generator.getNames();
+        prefixes = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            prefixes[i] = names[i].substring(0, Math.min(names[i].length(), 1 + i % 4));
+        }
+        System.out.printf("%n%d names, %d nodes, about %d KB%n", index.size(), index.getNodeCount(),
+                index.estimateMemory() / 1024);
+    }
+
+    @Benchmark
+    public List<StoryForSuggestionIndex.Suggestion> suggest() {
+        next = (next + 1) % prefixes.length;
+        return index.suggest(prefixes[next], 8);
+    }
+
+    @Benchmark
+    public void addStory() {
+        index.add(UUID.randomUUID(), generator.storyFor());
+    }
+}
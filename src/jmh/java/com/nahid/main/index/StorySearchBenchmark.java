@@ -0,0 +1,148 @@
+package com.nahid.main.index;
+
+import com.nahid.main.StoryGenerator;
+import com.nahid.main.service.StoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous {@code /search} query (a case-folded {@code LIKE '%...%'} on
+ * {@code story_for} plus its count query) with {@link StorySearchIndex} followed by a
+ * batch hydration of the page ids, both against the same H2 table.
+ *
+ * <p>Run with {@code ./gradlew jmh} or, for a smaller table,
+ * {@code java -jar build/libs/untold-stories-0.0.1-SNAPSHOT-jmh.jar StorySearchBenchmark -p stories=100000}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class StorySearchBenchmark {
+
+    private static final int PAGE_SIZE = 4;
+    private static final String SUMMARY_COLUMNS = "story_id, story_for, title, excerpt, is_positive, created_at";
+
+    @Param({"1000000"})
+    public int stories;
+
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private PreparedStatement likeCount;
+    private PreparedStatement hydrateQuery;
+    private StorySearchIndex index;
+    private String[] names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        StoryGenerator generator = new StoryGenerator(42);
+        names = generator.getNames();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table story_table (story_id uuid primary key, story_for varchar(255), story_by varchar(255), "
+                    + "title varchar(255), description clob, excerpt varchar(203), is_positive boolean, created_at timestamp(6))");
+        }
+
+        index = new StorySearchIndex();
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into story_table (story_id, story_for, story_by, title, description, excerpt, is_positive, created_at) "
+                        + "values (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < stories; i++) {
+                UUID storyId = UUID.randomUUID();
+                String storyFor = generator.storyFor();
+                String title = generator.sentence(3);
+                String description = generator.sentence(40);
+                insert.setObject(1, storyId);
+                insert.setString(2, storyFor);
+                insert.setString(3, generator.storyBy(10_000));
+                insert.setString(4, title);
+                insert.setString(5, description);
+                insert.setString(6, StoryService.truncateDescription(description));
+                insert.setBoolean(7, generator.isPositive());
+                insert.setTimestamp(8, Timestamp.valueOf(start.plusSeconds(i)));
+                insert.addBatch();
+                index.index(storyId, storyFor, title, description);
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+
+        likeQuery = connection.prepareStatement("select " + SUMMARY_COLUMNS + " from story_table "
+                + "where upper(story_for) like upper(?) escape '\\' order by created_at desc offset 0 rows fetch first ? rows only");
+        likeCount = connection.prepareStatement("select count(story_id) from story_table where upper(story_for) like upper(?) escape '\\'");
+        hydrateQuery = connection.prepareStatement("select " + SUMMARY_COLUMNS + " from story_table where story_id in (?, ?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void likeQuery(Blackhole blackhole) throws SQLException {
+        String name = nextName();
+        likeQuery.setString(1, "%" + name + "%");
+        likeQuery.setInt(2, PAGE_SIZE);
+        consume(likeQuery, blackhole);
+        likeCount.setString(1, "%" + name + "%");
+        consume(likeCount, blackhole);
+    }
+
+    @Benchmark
+    public void searchIndex(Blackhole blackhole) throws SQLException {
+        StorySearchIndex.Hits hits = index.search(nextName(), 0, PAGE_SIZE);
+        blackhole.consume(hits.getTotal());
+        List<UUID> storyIds = hits.getStoryIds();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            hydrateQuery.setObject(i + 1, i < storyIds.size() ? storyIds.get(i) : null);
+        }
+        consume(hydrateQuery, blackhole);
+    }
+
+    private String nextName() {
+        next = (next + 1) % names.length;
+        return names[next];
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getObject(1));
+            }
+        }
+    }
+}
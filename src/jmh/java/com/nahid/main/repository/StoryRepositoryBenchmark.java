@@ -0,0 +1,141 @@
+package com.nahid.main.repository;
+
+import com.nahid.main.BenchmarkApplication;
+import com.nahid.main.model.Story;
+import com.nahid.main.model.StoryStamp;
+import com.nahid.main.model.StorySummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@link StoryRepository} queries behind the feed, the dashboard, search
+ * hydration and the story page, through Spring Data and Hibernate, against H2 holding
+ * 10k, 100k and 1M generated stories.
+ *
+ * <p>Cursors, authors and ids are drawn from a random sample of the loaded rows, so seeks land
+ * all over the table rather than on one hot page. Run a single size with
+ * {@code java -jar build/libs/untold-stories-0.0.1-SNAPSHOT-jmh.jar StoryRepositoryBenchmark -p stories=100000}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 3, time = 2)
+public class StoryRepositoryBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(0, 4);
+
+    @Param({"10000", "100000", "1000000"})
+    public int stories;
+
+    private ConfigurableApplicationContext context;
+    private StoryRepository storyRepository;
+    private List<Sample> samples;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("repository-benchmark-" + stories, WebApplicationType.NONE);
+        BenchmarkApplication.insertStories(context, stories, 42);
+        storyRepository = context.getBean(StoryRepository.class);
+        samples = context.getBean(JdbcTemplate.class).query(
+                "select created_at, story_id, story_by from story_table order by rand() limit 1000",
+                (resultSet, row) -> new Sample(resultSet.getTimestamp(1).toLocalDateTime(),
+                        resultSet.getObject(2, UUID.class), resultSet.getString(3)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<StorySummary> feedFirstPage() {
+        return storyRepository.findStorySummariesByOrderByCreatedAtDescStoryIdDesc(PAGE);
+    }
+
+    @Benchmark
+    public Slice<StorySummary> feedAfter() {
+        Sample sample = nextSample();
+        return storyRepository.findStorySummariesAfter(sample.createdAt, sample.storyId, PAGE);
+    }
+
+    @Benchmark
+    public Slice<StorySummary> feedBefore() {
+        Sample sample = nextSample();
+        return storyRepository.findStorySummariesBefore(sample.createdAt, sample.storyId, PAGE);
+    }
+
+    @Benchmark
+    public Slice<StorySummary> dashboardFirstPage() {
+        return storyRepository.findStorySummariesByStoryByOrderByCreatedAtDescStoryIdDesc(nextSample().storyBy, PAGE);
+    }
+
+    @Benchmark
+    public Slice<StorySummary> dashboardAfter() {
+        Sample sample = nextSample();
+        return storyRepository.findStorySummariesByStoryByAfter(sample.storyBy, sample.createdAt, sample.storyId, PAGE);
+    }
+
+    @Benchmark
+    public Slice<StorySummary> dashboardBefore() {
+        Sample sample = nextSample();
+        return storyRepository.findStorySummariesByStoryByBefore(sample.storyBy, sample.createdAt, sample.storyId, PAGE);
+    }
+
+    @Benchmark
+    public List<StorySummary> searchHydration() {
+        return storyRepository.findStorySummariesByStoryIdIn(List.of(nextSample().storyId, nextSample().storyId,
+                nextSample().storyId, nextSample().storyId));
+    }
+
+    @Benchmark
+    public Story storyPage() {
+        return storyRepository.findStoryByStoryId(nextSample().storyId);
+    }
+
+    @Benchmark
+    public StoryStamp storyStamp() {
+        return storyRepository.findStoryStampByStoryId(nextSample().storyId);
+    }
+
+    private Sample nextSample() {
+        next = (next + 1) % samples.size();
+        return samples.get(next);
+    }
+
+    private static final class Sample {
+        final LocalDateTime createdAt;
+        final UUID storyId;
+        final String storyBy;
+
+        Sample(LocalDateTime createdAt, UUID storyId, String storyBy) {
+            this.createdAt = createdAt;
+            this.storyId = storyId;
+            this.storyBy = storyBy;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.nahid.main.service;
+
+import com.nahid.main.StoryGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of computing the stored excerpt with {@link StoryService#truncateDescription(String)}.
+ *
+ * <p>{@code shortText} is returned as is, {@code longText} is cut inside plain ASCII,
+ * {@code surrogateBoundary} puts an emoji across the cut so the high surrogate has to be
+ * dropped, and {@code emojiText} is a long description made mostly of supplementary characters.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class TruncateDescriptionBenchmark {
+
+    private static final String EMOJI = "😀";
+
+    private String shortText;
+    private String longText;
+    private String surrogateBoundary;
+    private String emojiText;
+
+    @Setup
+    public void setUp() {
+        StoryGenerator generator = new StoryGenerator(42);
+        shortText = generator.sentence(10);
+        longText = generator.sentence(400);
+        surrogateBoundary = "a".repeat(StoryService.EXCERPT_LENGTH - 1) + EMOJI + generator.sentence(100);
+        emojiText = (EMOJI + " ").repeat(1000);
+    }
+
+    @Benchmark
+    public String shortText() {
+        return StoryService.truncateDescription(shortText);
+    }
+
+    @Benchmark
+    public String longText() {
+        return StoryService.truncateDescription(longText);
+    }
+
+    @Benchmark
+    public String surrogateBoundary() {
+        return StoryService.truncateDescription(surrogateBoundary);
+    }
+
+    @Benchmark
+    public String emojiText() {
+        return StoryService.truncateDescription(emojiText);
+    }
+}
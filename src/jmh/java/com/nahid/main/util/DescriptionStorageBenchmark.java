@@ -0,0 +1,145 @@
+package com.nahid.main.util;
+
+import com.nahid.main.StoryGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage and read cost of story descriptions as a CLOB (before) and as {@link TextCompression}
+ * output in a binary column (now), on a generated corpus of single-paragraph and multi-paragraph
+ * bodies in H2.
+ *
+ * <p>Setup prints the stored bytes of both columns, as reported by H2, and the compression
+ * ratio. {@code readClob} and {@code readDeflated} load one random body by primary key, the
+ * story page's read; {@code compress} is the extra cost of a save.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class DescriptionStorageBenchmark {
+
+    @Param({"20000"})
+    public int stories;
+
+    private Connection connection;
+    private PreparedStatement readClob;
+    private PreparedStatement readDeflated;
+    private String[] bodies;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        StoryGenerator generator = new StoryGenerator(42);
+        bodies = new String[stories];
+        for (int i = 0; i < stories; i++) {
+            // Every fourth story is a long multi-paragraph body, the rest a paragraph
+            int paragraphs = i % 4 == 0 ? 6 : 1;
+            StringBuilder body = new StringBuilder();
+            for (int p = 0; p < paragraphs; p++) {
+                if (p > 0) body.append("\n\n");
+                body.append(generator.sentence(40 + i % 60));
+            }
+            bodies[i] = body.toString();
+        }
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:description-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table clob_story (id int primary key, description clob)");
+            statement.execute("create table deflated_story (id int primary key, description varbinary)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement clob = connection.prepareStatement("insert into clob_story values (?, ?)");
+             PreparedStatement deflated = connection.prepareStatement("insert into deflated_story values (?, ?)")) {
+            for (int i = 0; i < stories; i++) {
+                clob.setInt(1, i);
+                clob.setString(2, bodies[i]);
+                clob.addBatch();
+                deflated.setInt(1, i);
+                deflated.setBytes(2, TextCompression.compress(bodies[i]));
+                deflated.addBatch();
+                if (i % 1000 == 999) {
+                    clob.executeBatch();
+                    deflated.executeBatch();
+                }
+            }
+            clob.executeBatch();
+            deflated.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        long utf8 = 0;
+        for (String body : bodies) utf8 += body.getBytes(StandardCharsets.UTF_8).length;
+        long clobBytes = columnBytes("clob_story");
+        long deflatedBytes = columnBytes("deflated_story");
+        System.out.printf("%n%d descriptions: %d KB of UTF-8, %d KB stored as CLOB, %d KB deflated (%.1f%% of the CLOB)%n",
+                stories, utf8 / 1024, clobBytes / 1024, deflatedBytes / 1024, 100.0 * deflatedBytes / clobBytes);
+
+        readClob = connection.prepareStatement("select description from clob_story where id = ?");
+        readDeflated = connection.prepareStatement("select description from deflated_story where id = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public String readClob() throws SQLException {
+        readClob.setInt(1, nextId());
+        try (ResultSet resultSet = readClob.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    @Benchmark
+    public String readDeflated() throws SQLException {
+        readDeflated.setInt(1, nextId());
+        try (ResultSet resultSet = readDeflated.executeQuery()) {
+            resultSet.next();
+            return TextCompression.decompress(resultSet.getBytes(1));
+        }
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return TextCompression.compress(bodies[nextId()]);
+    }
+
+    private int nextId() {
+        next = (next + 1) % stories;
+        return next;
+    }
+
+    private long columnBytes(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select sum(octet_length(description)) from " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
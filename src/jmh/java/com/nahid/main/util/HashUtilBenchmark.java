@@ -0,0 +1,92 @@
+package com.nahid.main.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link HashUtil#hash(String)} against the previous implementation, which looked
+ * up the provider and built a new key for every call.
+ *
+ * <p>{@code repeatedPrincipal} hashes the same username over and over (the dashboard case),
+ * {@code distinctPrincipals} picks from more usernames than the memo holds. Allocation per
+ * operation is reported by the {@code gc} profiler configured in {@code build.gradle}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class HashUtilBenchmark {
+
+    private static final String SECRET = "mySecretPassword123";
+
+    private HashUtil hashUtil;
+    private String[] usernames;
+    private List<String> batch;
+
+    @Setup
+    public void setUp() {
+        hashUtil = new HashUtil(SECRET);
+        usernames = new String[10_000];
+        for (int i = 0; i < usernames.length; i++) {
+            usernames[i] = "student" + i + "@university.edu";
+        }
+        batch = List.of(usernames).subList(0, 100);
+    }
+
+    @Benchmark
+    public String legacyRepeatedPrincipal() throws Exception {
+        return legacyHash(usernames[0]);
+    }
+
+    @Benchmark
+    public String legacyDistinctPrincipals() throws Exception {
+        return legacyHash(randomUsername());
+    }
+
+    @Benchmark
+    public String repeatedPrincipal() {
+        return hashUtil.hash(usernames[0]);
+    }
+
+    @Benchmark
+    public String distinctPrincipals() {
+        return hashUtil.hash(randomUsername());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<String> batchOfHundred() {
+        return hashUtil.hash(batch);
+    }
+
+    private String randomUsername() {
+        return usernames[ThreadLocalRandom.current().nextInt(usernames.length)];
+    }
+
+    /** The implementation {@link HashUtil} had before it cached its {@link Mac}. */
+    private static String legacyHash(String data) throws Exception {
+        Mac hmac = Mac.getInstance("HmacSHA256");
+        SecretKeySpec keySpec = new SecretKeySpec(SECRET.getBytes(), "HmacSHA256");
+        hmac.init(keySpec);
+        return Base64.getEncoder().encodeToString(hmac.doFinal(data.getBytes()));
+    }
+}
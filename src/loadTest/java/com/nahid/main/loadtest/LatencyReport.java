@@ -0,0 +1,103 @@
+package com.nahid.main.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per route, recorded in microseconds by many virtual threads at once.
+ *
+ * <p>Nothing is recorded until {@link #start()}, so the warm-up phase does not count.
+ * Requests that failed (I/O error, 4xx/5xx, or a login refused because hashing was busy)
+ * are counted as errors but their latency is still recorded.</p>
+ */
+class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private long startNanos;
+    private long stopNanos;
+
+    void start() {
+        startNanos = System.nanoTime();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+        stopNanos = System.nanoTime();
+    }
+
+    void record(String route, long nanos, boolean error) {
+        if (!recording) return;
+        Route stats = routes.computeIfAbsent(route, name -> new Route());
+        stats.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        if (error) stats.errors.increment();
+    }
+
+    /** Counts a request that completed normally but whose outcome was a failure, like a refused login. */
+    void recordError(String route) {
+        if (!recording) return;
+        routes.computeIfAbsent(route, name -> new Route()).errors.increment();
+    }
+
+    /** Prints throughput and percentiles per route, in milliseconds. */
+    void print(PrintStream out) {
+        double seconds = (stopNanos - startNanos) / 1e9;
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+
+        out.printf("%n%-28s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Route> entry : new TreeMap<>(routes).entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            long errors = entry.getValue().errors.sum();
+            printRow(out, entry.getKey(), histogram, errors, seconds);
+            total.add(histogram);
+            totalErrors += errors;
+        }
+        printRow(out, "total", total, totalErrors, seconds);
+        out.printf("measured for %.1f s%n", seconds);
+    }
+
+    /**
+     * Writes one percentile distribution per route in HdrHistogram's {@code .hgrm} format
+     * (values in milliseconds), which the HdrHistogram plotter can load and compare.
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Route> entry : routes.entrySet()) {
+            String name = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")))) {
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static void printRow(PrintStream out, String route, Histogram histogram, long errors, double seconds) {
+        out.printf("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", route,
+                histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                millis(histogram, 50), millis(histogram, 95), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class Route {
+        final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,223 @@
+package com.nahid.main.loadtest;
+
+import com.nahid.main.UntoldStoriesApplication;
+import com.nahid.main.model.Story;
+import com.nahid.main.service.StoryService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a traffic mix against the application from thousands of virtual-thread clients and
+ * prints throughput and latency percentiles per route.
+ *
+ * <p>Unless {@code loadTest.target} points at a running instance, the application is started
+ * in this JVM on a random port with a fresh in-memory database, and seeded with stories written
+ * by the load test users so the story, search and edit scenarios have something to read.
+ * Run with {@code ./gradlew loadTest}; every setting below can be passed as
+ * {@code -PloadTest.<name>=<value>}.</p>
+ *
+ * <ul>
+ *     <li>{@code clients} concurrent virtual users (default 1000)</li>
+ *     <li>{@code warmup} and {@code duration} of the two phases, only the second is reported (15s, 60s)</li>
+ *     <li>{@code mix} weights per scenario (home:40,story:40,search:10,login:4,post:3,edit:3)</li>
+ *     <li>{@code users} registered accounts shared by the clients (20)</li>
+ *     <li>{@code stories} stories seeded into the in-process application (5000)</li>
+ *     <li>{@code thinkTime} pause between two requests of a client (0ms)</li>
+ *     <li>{@code asyncSubmissions} runs the in-process application with write-behind story submissions (false)</li>
+ *     <li>{@code reportDir} where the {@code .hgrm} percentile distributions are written</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    static final String PASSWORD = "load-test-password";
+
+    private static final Pattern STORY_LINK = Pattern.compile("/story/([0-9a-f-]{36})\"");
+    private static final Pattern STORY_FOR = Pattern.compile("class=\"name\">([^<]+)<");
+    private static final Pattern NEXT_PAGE = Pattern.compile("href=\"/home\\?after=([^\"]+)\"");
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern SESSION = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final int CRAWLED_PAGES = 200;
+
+    /** Story ids and subjects found on the home feed, read by every client. */
+    record Site(List<String> storyIds, List<String> searchTerms) {
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadTest.clients", 1000);
+        Duration warmup = duration("loadTest.warmup", "15s");
+        Duration duration = duration("loadTest.duration", "60s");
+        Duration thinkTime = duration("loadTest.thinkTime", "0ms");
+        int users = Integer.getInteger("loadTest.users", 20);
+        int stories = Integer.getInteger("loadTest.stories", 5000);
+        VirtualUser.Scenario[] mix = parseMix(System.getProperty("loadTest.mix", "home:40,story:40,search:10,login:4,post:3,edit:3"));
+        Path reportDir = Path.of(System.getProperty("loadTest.reportDir", "build/reports/load-test"));
+        String target = System.getProperty("loadTest.target", "");
+        boolean asyncSubmissions = Boolean.getBoolean("loadTest.asyncSubmissions");
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = target;
+        if (target.isBlank()) {
+            // Arguments rather than default properties, which application.properties would override
+            context = new SpringApplicationBuilder(UntoldStoriesApplication.class)
+                    .logStartupInfo(false)
+                    .bannerMode(Banner.Mode.OFF)
+                    .run("--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+                            "--server.port=0",
+                            "--story-submissions.async=" + asyncSubmissions,
+                            "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(executor)
+                     .followRedirects(HttpClient.Redirect.NEVER)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            for (int i = 0; i < users; i++) {
+                register(client, baseUrl, username(i));
+            }
+            if (context != null) {
+                seed(context.getBean(StoryService.class), stories, users);
+            }
+            Site site = crawl(client, baseUrl);
+            if (site.storyIds().isEmpty()) {
+                throw new IllegalStateException("No stories found on " + baseUrl + ", nothing to load");
+            }
+            System.out.printf("%d clients against %s, %d stories and %d subjects found, warm-up %s, measuring %s%n",
+                    clients, baseUrl, site.storyIds().size(), site.searchTerms().size(), warmup, duration);
+
+            LatencyReport report = new LatencyReport();
+            long warmupEnd = System.nanoTime() + warmup.toNanos();
+            long deadline = warmupEnd + duration.toNanos();
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    clientThreads.execute(new VirtualUser(client, baseUrl, site, report, mix, deadline, thinkTime,
+                            username(i % users)));
+                }
+                TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+                report.start();
+                TimeUnit.NANOSECONDS.sleep(deadline - System.nanoTime());
+                report.stop();
+            }
+
+            report.print(System.out);
+            report.write(reportDir);
+            System.out.println("percentile distributions written to " + reportDir.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static String username(int index) {
+        return "loadtest-" + index;
+    }
+
+    /** Registers a user, ignoring "already taken" so the same target can be loaded again. */
+    private static void register(HttpClient client, String baseUrl, String username) throws IOException, InterruptedException {
+        HttpResponse<String> form = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/register")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher csrf = CSRF.matcher(form.body());
+        Matcher session = SESSION.matcher(form.headers().firstValue("Set-Cookie").orElse(""));
+        if (!csrf.find() || !session.find()) {
+            throw new IllegalStateException("Registration form without CSRF token or session at " + baseUrl);
+        }
+        String body = "username=" + encode(username) + "&password=" + encode(PASSWORD) + "&_csrf=" + encode(csrf.group(1));
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/register"))
+                .header("Cookie", "JSESSIONID=" + session.group(1))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    /** Writes stories spread over the past month, authored by the load test users. */
+    private static void seed(StoryService storyService, int count, int users) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        long step = Duration.ofDays(30).toSeconds() / Math.max(count, 1);
+        List<Story> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Story story = new Story();
+            story.setStoryFor("Person " + random.nextInt(500));
+            story.setStoryBy(username(i % users));
+            story.setTitle("Seeded story " + i);
+            story.setDescription("Seeded by the load test. ".repeat(1 + random.nextInt(80)));
+            story.setIsPositive(random.nextBoolean());
+            story.setCreatedAt(start.plusSeconds(i * step));
+            batch.add(story);
+            if (batch.size() == 1000 || i == count - 1) {
+                storyService.saveStories(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    /** Follows the home feed's "Next" links and collects story ids and subjects. */
+    private static Site crawl(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        Set<String> storyIds = new LinkedHashSet<>();
+        Set<String> searchTerms = new LinkedHashSet<>();
+        String path = "/";
+        for (int page = 0; page < CRAWLED_PAGES && path != null; page++) {
+            String body = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            STORY_LINK.matcher(body).results().forEach(match -> storyIds.add(match.group(1)));
+            STORY_FOR.matcher(body).results().forEach(match -> searchTerms.add(HtmlUtils.htmlUnescape(match.group(1))));
+            Matcher next = NEXT_PAGE.matcher(body);
+            path = next.find() ? "/home?after=" + next.group(1) : null;
+        }
+        return new Site(List.copyOf(storyIds), List.copyOf(searchTerms));
+    }
+
+    /** Expands {@code name:weight,...} into a table with one slot per unit of weight. */
+    private static VirtualUser.Scenario[] parseMix(String mix) {
+        List<VirtualUser.Scenario> table = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            VirtualUser.Scenario scenario = VirtualUser.Scenario.valueOf(parts[0].trim().toUpperCase());
+            int weight = Integer.parseInt(parts[1].trim());
+            for (int i = 0; i < weight; i++) table.add(scenario);
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Empty scenario mix: " + mix);
+        }
+        return table.toArray(VirtualUser.Scenario[]::new);
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package com.nahid.main.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the application takes from process start to the first answered request, and
+ * how much memory it holds once it has answered, for each way of launching it.
+ *
+ * <ul>
+ *     <li>{@code jar}: {@code java -jar} on the boot jar, the way it ran so far</li>
+ *     <li>{@code aot}: the same jar with the bean definitions generated by Spring AOT</li>
+ *     <li>{@code aot+cds}: the launcher of {@code build/app}, extracted jar with AOT and the CDS archive</li>
+ * </ul>
+ *
+ * <p>Each variant starts {@code startup.runs} times (default 5) on a free port; the median is
+ * reported. Run with {@code ./gradlew startupBenchmark}. Resident memory is read from
+ * {@code /proc} and only reported on Linux.</p>
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(3);
+
+    private record Result(long millis, long rssKilobytes) {
+    }
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = System.getProperty("startup.java", "java");
+        String jar = System.getProperty("startup.jar");
+        String launcher = System.getProperty("startup.launcher");
+        int runs = Integer.getInteger("startup.runs", 5);
+
+        System.out.printf("%n%-10s %20s %16s%n", "variant", "first request ms", "RSS MB");
+        report("jar", runs, List.of(java, "-jar", jar));
+        report("aot", runs, List.of(java, "-Dspring.aot.enabled=true", "-jar", jar));
+        report("aot+cds", runs, List.of(launcher));
+    }
+
+    private static void report(String variant, int runs, List<String> command) throws Exception {
+        long[] millis = new long[runs];
+        long[] rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            Result result = start(command);
+            millis[i] = result.millis();
+            rss[i] = result.rssKilobytes();
+        }
+        long medianRss = median(rss);
+        System.out.printf("%-10s %20d %16s%n", variant, median(millis),
+                medianRss < 0 ? "n/a" : String.format("%.1f", medianRss / 1024.0));
+    }
+
+    /** Starts the application, polls it until it answers {@code /}, records the time and RSS, then stops it. */
+    private static Result start(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(List.of("--server.port=" + port, "--spring.main.banner-mode=off", "--logging.level.root=WARN"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/"))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ": " + command);
+                }
+                if (System.nanoTime() - start > TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("No answer within " + TIMEOUT + ": " + command);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) break;
+                } catch (IOException notListeningYet) {
+                    // Retry below
+                }
+                Thread.sleep(20);
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new Result(millis, rssKilobytes(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) return -1;
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,204 @@
+package com.nahid.main.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated visitor, run on its own virtual thread. It picks scenarios from the mix until the
+ * deadline, keeping its own session cookie and CSRF token like a browser would.
+ *
+ * <p>Clients are closed-loop: the next request is sent when the previous one completes (plus the
+ * optional think time), so latencies are those seen by the clients, not by an open arrival rate.</p>
+ */
+class VirtualUser implements Runnable {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern SESSION = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final Pattern EDIT_LINK = Pattern.compile("/user/story/([0-9a-f-]{36})/edit");
+
+    enum Scenario { HOME, STORY, SEARCH, LOGIN, POST, EDIT }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTest.Site site;
+    private final LatencyReport report;
+    private final Scenario[] mix;
+    private final long deadlineNanos;
+    private final Duration thinkTime;
+    private final String username;
+    private String session;
+    private boolean loggedIn;
+
+    VirtualUser(HttpClient client, String baseUrl, LoadTest.Site site, LatencyReport report, Scenario[] mix,
+                long deadlineNanos, Duration thinkTime, String username) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.site = site;
+        this.report = report;
+        this.mix = mix;
+        this.deadlineNanos = deadlineNanos;
+        this.thinkTime = thinkTime;
+        this.username = username;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            while (System.nanoTime() < deadlineNanos) {
+                switch (mix[random.nextInt(mix.length)]) {
+                    case HOME -> get("GET /", "/");
+                    case STORY -> get("GET /story/{id}", "/story/" + pick(site.storyIds()));
+                    case SEARCH -> get("GET /search", "/search?searchQuery=" + encode(pick(site.searchTerms())));
+                    case LOGIN -> login();
+                    case POST -> postStory();
+                    case EDIT -> editStory();
+                }
+                if (!thinkTime.isZero()) {
+                    Thread.sleep(thinkTime);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Starts a new session and signs in, as a returning visitor would. */
+    private void login() throws InterruptedException {
+        session = null;
+        loggedIn = false;
+        String csrf = csrfOf(get("GET /login", "/login"));
+        if (csrf == null) return;
+
+        HttpResponse<String> response = send("POST /login", post("/login",
+                form("username", username, "password", LoadTest.PASSWORD, "_csrf", csrf)), true);
+        String location = response == null ? null : response.headers().firstValue("Location").orElse(null);
+        loggedIn = location != null && !location.contains("/login");
+        if (response != null && !loggedIn) {
+            report.recordError("POST /login");
+        }
+    }
+
+    private void postStory() throws InterruptedException {
+        String csrf = authenticatedCsrf("GET /user/story", "/user/story");
+        if (csrf == null) return;
+        int n = ThreadLocalRandom.current().nextInt(1_000_000);
+        send("POST /user/story", post("/user/story", form("storyFor", "Load Test " + n % 100,
+                "title", "Load test story " + n, "isPositive", n % 2 == 0 ? "True" : "False",
+                "description", "Generated by the load test. ".repeat(1 + n % 40), "_csrf", csrf)), true);
+    }
+
+    private void editStory() throws InterruptedException {
+        if (!ensureLoggedIn()) return;
+        HttpResponse<String> dashboard = get("GET /user/dashboard", "/user/dashboard");
+        List<String> ownStories = dashboard == null ? List.of() : matches(EDIT_LINK, dashboard.body());
+        if (ownStories.isEmpty()) {
+            postStory();
+            return;
+        }
+
+        String storyId = pick(ownStories);
+        String csrf = csrfOf(get("GET /user/story/{id}/edit", "/user/story/" + storyId + "/edit"));
+        if (csrf == null) return;
+        int n = ThreadLocalRandom.current().nextInt(1_000_000);
+        send("POST /user/story/{id}/edit", post("/user/story/" + storyId + "/edit", form("storyFor", "Load Test " + n % 100,
+                "title", "Edited load test story " + n, "isPositive", "True",
+                "description", "Edited by the load test. ".repeat(1 + n % 40), "referer", "", "_csrf", csrf)), true);
+    }
+
+    private String authenticatedCsrf(String route, String path) throws InterruptedException {
+        if (!ensureLoggedIn()) return null;
+        return csrfOf(get(route, path));
+    }
+
+    private boolean ensureLoggedIn() throws InterruptedException {
+        if (!loggedIn) login();
+        return loggedIn;
+    }
+
+    private HttpResponse<String> get(String route, String path) throws InterruptedException {
+        return send(route, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), false);
+    }
+
+    private HttpRequest.Builder post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+    }
+
+    /**
+     * Sends the request with this user's session cookie and records its latency under {@code route}.
+     * A redirect to the login page means the session is gone and the user must sign in again.
+     */
+    private HttpResponse<String> send(String route, HttpRequest.Builder request, boolean expectRedirect)
+            throws InterruptedException {
+        if (session != null) {
+            request.header("Cookie", "JSESSIONID=" + session);
+        }
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            report.record(route, System.nanoTime() - start, true);
+            return null;
+        }
+        int status = response.statusCode();
+        boolean error = status >= 400 || (!expectRedirect && status >= 300);
+        report.record(route, System.nanoTime() - start, error);
+
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION.matcher(cookie);
+            if (matcher.find()) session = matcher.group(1);
+        }
+        if (status == 302 && response.headers().firstValue("Location").orElse("").endsWith("/login")) {
+            loggedIn = false;
+        }
+        return response;
+    }
+
+    private static String csrfOf(HttpResponse<String> response) {
+        if (response == null) return null;
+        Matcher matcher = CSRF.matcher(response.body());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static List<String> matches(Pattern pattern, String body) {
+        List<String> values = new ArrayList<>();
+        Matcher matcher = pattern.matcher(body);
+        while (matcher.find()) values.add(matcher.group(1));
+        return values;
+    }
+
+    private static String form(String... pairs) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) fields.put(pairs[i], pairs[i + 1]);
+        StringBuilder form = new StringBuilder();
+        fields.forEach((name, value) -> {
+            if (!form.isEmpty()) form.append('&');
+            form.append(encode(name)).append('=').append(encode(value));
+        });
+        return form.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String pick(List<String> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
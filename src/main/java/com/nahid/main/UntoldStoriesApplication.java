@@ -2,9 +2,11 @@ package com.nahid.main;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.keygen.KeyGenerators;
 
 @SpringBootApplication
+@EnableScheduling
 public class UntoldStoriesApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,165 @@
+package com.nahid.main.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nahid.main.model.StoryCursor;
+import com.nahid.main.model.StorySlice;
+import com.nahid.main.model.StorySummary;
+import com.nahid.main.repository.StoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the newest stories of the public home feed in memory.
+ *
+ * <p>For each page size it holds the first {@code feed-cache.pages} pages as one list, the
+ * "head" of the feed, loaded with a single query. Any cursor that lands inside the head is
+ * served from it; deeper cursors miss and go to the database as before. Concurrent misses
+ * for the same head share one load. {@link #invalidate()} must be called after every story
+ * mutation, once it is committed; a load that races with it is discarded, never served. Each
+ * head remembers the feed version read before its query, and a head whose version has since
+ * moved is dropped instead of served, even if Caffeine let the racing load complete into the
+ * cache after {@code invalidateAll()}. Heads also expire after {@code feed-cache.expire-after-write}
+ * as a backstop.</p>
+ *
+ * <p>Every invalidation also moves the feed's version stamp, which backs the ETag and
+ * Last-Modified headers of the home feed. The stamp includes the boot time, so ETags
+ * handed out before a restart never match afterwards.</p>
+ */
+@Component
+public class StoryFeedCache {
+
+    private final StoryRepository storyRepository;
+    private final int pages;
+    private final LoadingCache<Integer, Head> heads;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final long bootTime = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = bootTime;
+
+    public StoryFeedCache(StoryRepository storyRepository, @Value("${feed-cache.pages}") int pages,
+                          @Value("${feed-cache.expire-after-write}") Duration expireAfterWrite) {
+        this.storyRepository = storyRepository;
+        this.pages = pages;
+        this.heads = Caffeine.newBuilder()
+                .maximumSize(8)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(this::loadHead);
+    }
+
+    /**
+     * Returns the requested feed page if it lies within the cached head.
+     *
+     * @return the slice, or {@code null} if the caller must query the database
+     */
+    public StorySlice getSlice(StoryCursor after, StoryCursor before, int size) {
+        Head head = heads.get(size);
+        if (head.version != version.get()) {
+            // Loaded from before the last mutation: drop it, unless a newer head replaced it already
+            heads.asMap().remove(size, head);
+            misses.increment();
+            return null;
+        }
+        StorySlice slice = sliceOf(head.stories, isComplete(head.stories, size), after, before, size);
+        (slice == null ? misses : hits).increment();
+        return slice;
+    }
+
+    public void invalidate() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+        heads.invalidateAll();
+    }
+
+    /** Strong ETag value of the feed: changes on every story mutation. */
+    public String getETag() {
+        return "\"feed-" + Long.toString(bootTime, 36) + "-" + version.get() + "\"";
+    }
+
+    /** Time of the last story mutation (or of startup) as epoch milliseconds. */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Requests served from (hits) or passed through (misses) the cache, with the load
+     * count and load time of the head query.
+     */
+    public CacheStats getCacheStats() {
+        CacheStats loads = heads.stats();
+        return CacheStats.of(hits.sum(), misses.sum(), loads.loadSuccessCount(), loads.loadFailureCount(),
+                loads.totalLoadTime(), loads.evictionCount(), loads.evictionWeight());
+    }
+
+    private Head loadHead(int size) {
+        // The version is read first: a mutation committed after it moves the version past it
+        long loadedVersion = version.get();
+        // One story more than the cached pages, to know whether the head is the whole feed
+        List<StorySummary> stories = storyRepository
+                .findStorySummariesByOrderByCreatedAtDescStoryIdDesc(PageRequest.of(0, pages * size + 1))
+                .getContent();
+        return new Head(loadedVersion, stories);
+    }
+
+    private boolean isComplete(List<StorySummary> head, int size) {
+        return head.size() <= pages * size;
+    }
+
+    private static StorySlice sliceOf(List<StorySummary> head, boolean complete,
+                                      StoryCursor after, StoryCursor before, int size) {
+        if (before != null) {
+            int end = indexOf(head, before);
+            if (end <= 0) return null;
+            int start = Math.max(0, end - size);
+            return new StorySlice(List.copyOf(head.subList(start, end)),
+                    StoryCursor.of(head.get(end - 1)).encode(),
+                    start > 0 ? StoryCursor.of(head.get(start)).encode() : null);
+        }
+
+        int start = 0;
+        if (after != null) {
+            int index = indexOf(head, after);
+            if (index < 0) return null;
+            start = index + 1;
+        }
+        int end = start + size;
+        if (!complete && end >= head.size()) return null;
+        if (start >= head.size() && after != null) {
+            // Nothing older than the cursor: fall back to the first page like the database path
+            return sliceOf(head, complete, null, null, size);
+        }
+        end = Math.min(end, head.size());
+        return new StorySlice(List.copyOf(head.subList(start, end)),
+                end < head.size() ? StoryCursor.of(head.get(end - 1)).encode() : null,
+                start > 0 ? StoryCursor.of(head.get(start)).encode() : null);
+    }
+
+    private static int indexOf(List<StorySummary> head, StoryCursor cursor) {
+        for (int i = 0; i < head.size(); i++) {
+            if (StoryCursor.of(head.get(i)).equals(cursor)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Newest stories of the feed, as of a feed version. Compared by identity. */
+    private static final class Head {
+        final long version;
+        final List<StorySummary> stories;
+
+        Head(long version, List<StorySummary> stories) {
+            this.version = version;
+            this.stories = stories;
+        }
+    }
+}
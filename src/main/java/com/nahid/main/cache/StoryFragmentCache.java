@@ -0,0 +1,152 @@
+package com.nahid.main.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nahid.main.model.Story;
+import com.nahid.main.model.StoryStamp;
+import com.nahid.main.model.StorySummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps rendered HTML of the story fragments in {@code templates/fragments/story.html}.
+ *
+ * <p>A card or story body only changes when the story does, so each fragment is rendered
+ * once per story version and reused by every visitor. Entries are keyed by story and
+ * fragment and remember the version they were rendered from; a lookup with another version
+ * renders again. Fragments are rendered outside of any request, so they cannot pick up
+ * per-user markup, which stays in the page templates.</p>
+ *
+ * <p>The cache is bounded by the approximate memory taken by the HTML and evicts with
+ * Caffeine's frequency-and-recency policy. {@link #evict(UUID)} must be called when a
+ * story is edited or deleted. With {@code fragment-cache.enabled=false} every call renders,
+ * which makes the render time with and without the cache comparable in {@link #getCacheStats()}.</p>
+ */
+@Component
+public class StoryFragmentCache {
+
+    private static final String TEMPLATE = "fragments/story";
+    private static final List<String> FRAGMENTS = List.of("card-top", "card-body", "post");
+
+    private final ITemplateEngine templateEngine;
+    private final boolean enabled;
+    private final Cache<Key, Fragment> fragments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+
+    public StoryFragmentCache(ITemplateEngine templateEngine,
+                              @Value("${fragment-cache.enabled}") boolean enabled,
+                              @Value("${fragment-cache.maximum-size}") DataSize maximumSize) {
+        this.templateEngine = templateEngine;
+        this.enabled = enabled;
+        this.fragments = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Key key, Fragment fragment) -> fragment.getWeight())
+                .recordStats()
+                .build();
+    }
+
+    /** Home page card fragments. */
+    public String render(String fragment, StorySummary story) {
+        return render(fragment, story.getStoryId(), story.getVersion(), story);
+    }
+
+    /** Story page fragment. */
+    public String render(String fragment, Story story) {
+        return render(fragment, story.getStoryId(), story.getVersion(), story);
+    }
+
+    /**
+     * Story page fragment for the version in {@code stamp}, loading the story only when it has to
+     * be rendered, so a cached page never reads or decompresses the description.
+     *
+     * @return the HTML, or {@code null} if the story no longer exists
+     */
+    public String render(String fragment, StoryStamp stamp, Supplier<Story> loader) {
+        if (enabled) {
+            Fragment cached = fragments.getIfPresent(new Key(stamp.getStoryId(), fragment));
+            if (cached != null && Objects.equals(cached.getVersion(), stamp.getVersion())) {
+                hits.increment();
+                return cached.getHtml();
+            }
+        }
+        Story story = loader.get();
+        return story == null ? null : render(fragment, story);
+    }
+
+    public void evict(UUID storyId) {
+        for (String fragment : FRAGMENTS) {
+            fragments.invalidate(new Key(storyId, fragment));
+        }
+    }
+
+    /**
+     * Lookups served from (hits) or rendered for (misses) the cache. Renders are reported as
+     * loads, so {@link CacheStats#averageLoadPenalty()} is the average render time in nanoseconds.
+     */
+    public CacheStats getCacheStats() {
+        CacheStats stored = fragments.stats();
+        long renders = misses.sum();
+        return CacheStats.of(hits.sum(), renders, renders, 0, renderNanos.sum(),
+                stored.evictionCount(), stored.evictionWeight());
+    }
+
+    /** Approximate bytes of HTML currently held. */
+    public long getWeightedSize() {
+        return fragments.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    private String render(String fragment, UUID storyId, Long version, Object story) {
+        Key key = new Key(storyId, fragment);
+        if (enabled) {
+            Fragment cached = fragments.getIfPresent(key);
+            if (cached != null && Objects.equals(cached.getVersion(), version)) {
+                hits.increment();
+                return cached.getHtml();
+            }
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        Context context = new Context();
+        context.setVariable("story", story);
+        String html = templateEngine.process(TEMPLATE, Set.of(fragment), context);
+        renderNanos.add(System.nanoTime() - start);
+
+        if (enabled && version != null) {
+            fragments.put(key, new Fragment(version, html));
+        }
+        return html;
+    }
+
+    @lombok.Value
+    private static class Key {
+        UUID storyId;
+        String fragment;
+    }
+
+    @lombok.Value
+    private static class Fragment {
+        Long version;
+        String html;
+
+        /** Two bytes per char plus key and entry overhead, a bound rather than an exact size. */
+        int getWeight() {
+            return 2 * html.length() + 128;
+        }
+    }
+}
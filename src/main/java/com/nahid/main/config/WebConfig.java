@@ -0,0 +1,38 @@
+package com.nahid.main.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Static assets under {@code /css}, {@code /js} and {@code /images}.
+ *
+ * <p>Links written with {@code @{...}} in templates are rewritten to fingerprinted URLs
+ * ({@code /css/global-<md5>.css}), so a changed file always gets a new URL and the old one can
+ * be cached forever. The precompressed {@code .br} / {@code .gz} variants written by the
+ * {@code compressStaticResources} Gradle task are picked from {@code Accept-Encoding}. Hashes
+ * and resolved resources are cached by the resource chain, so neither costs anything after
+ * the first request.</p>
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final String[] ASSET_DIRECTORIES = {"css", "js", "images"};
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : ASSET_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+}
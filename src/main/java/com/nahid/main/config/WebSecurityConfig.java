@@ -1,19 +1,31 @@
 package com.nahid.main.config;
 
+import com.nahid.main.security.BoundedPasswordEncoder;
+import com.nahid.main.security.PasswordHashingBusyException;
 import com.nahid.main.service.CustomUserDetailsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.encrypt.Encryptors;
 import org.springframework.security.crypto.encrypt.TextEncryptor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+
+import java.io.IOException;
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -22,12 +34,41 @@ public class WebSecurityConfig {
 
     private final CustomUserDetailsService customUserDetailsService;
 
+    /**
+     * BCrypt runs on its own bounded pool, so login and registration bursts
+     * are refused early instead of occupying every request thread.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${password-hashing.threads}") int threads,
+                                                  @Value("${password-hashing.queue-capacity}") int queueCapacity,
+                                                  @Value("${password-hashing.timeout}") Duration timeout){
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, timeout);
+    }
+
+    /**
+     * The import API is called by scripts, not pages: admins authenticate on every request with
+     * HTTP Basic and the login session is neither read nor created. Without a cookie to ride on
+     * there is nothing for a forged cross-site request to use, so CSRF tokens are not required.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain importSecurityFilterChain(HttpSecurity httpSecurity) throws Exception{
+        return httpSecurity
+                .securityMatcher("/api/stories/import")
+                .authorizeHttpRequests(authorizeRequests -> authorizeRequests
+                        .anyRequest().hasAnyAuthority("ROLE_ADMIN"))
+                .httpBasic(Customizer.withDefaults())
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(sessionConfigurer -> sessionConfigurer
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(securityContextConfigurer -> securityContextConfigurer
+                        .securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .userDetailsService(customUserDetailsService)
+                .build();
     }
 
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception{
         return httpSecurity
 //                .csrf(AbstractHttpConfigurer::disable)
@@ -38,11 +79,14 @@ public class WebSecurityConfig {
                         .requestMatchers("/user/**").hasAnyAuthority("ROLE_USER")
                         .requestMatchers("/story/{storyId}/delete").hasAnyAuthority("ROLE_USER","ROLE_ADMIN")
                         .requestMatchers("/h2-console/*").hasAnyAuthority("ROLE_ADMIN")
+                        .requestMatchers("/api/stories/export").hasAnyAuthority("ROLE_ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAnyAuthority("ROLE_ADMIN")
                         .anyRequest().permitAll())
 
                 .formLogin(formLoginConfigurer -> formLoginConfigurer
                         .loginPage("/login")
-                        .failureUrl("/login?error=true")
+                        .failureHandler(this::onLoginFailure)
                         .defaultSuccessUrl("/dashboard",true))
 
                 .logout(logoutConfigurer -> logoutConfigurer
@@ -54,6 +98,17 @@ public class WebSecurityConfig {
                 .build();
     }
 
+    /**
+     * Sends the user back to the login page: "/login?busy=true" when the password
+     * could not be checked because hashing is saturated, "/login?error=true" otherwise.
+     */
+    private void onLoginFailure(HttpServletRequest request, HttpServletResponse response,
+                                AuthenticationException exception) throws IOException {
+        boolean busy = exception instanceof PasswordHashingBusyException
+                || exception.getCause() instanceof PasswordHashingBusyException;
+        response.sendRedirect(request.getContextPath() + (busy ? "/login?busy=true" : "/login?error=true"));
+    }
+
     //    @Bean
 //    public TextEncryptor textEncryptor(
 //            @Value("${encryption.password}") String password,
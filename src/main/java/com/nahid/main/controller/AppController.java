@@ -1,72 +1,126 @@
 package com.nahid.main.controller;
 
+import com.nahid.main.cache.StoryFragmentCache;
+import com.nahid.main.index.StoryFacetIndex;
+import com.nahid.main.index.StoryForSuggestionIndex;
+import com.nahid.main.model.FacetQuery;
 import com.nahid.main.model.Story;
+import com.nahid.main.model.StorySlice;
+import com.nahid.main.model.StoryStamp;
+import com.nahid.main.model.StorySummary;
 import com.nahid.main.repository.StoryRepository;
+import com.nahid.main.service.StoryFeedBroadcaster;
 import com.nahid.main.service.StoryService;
+import com.nahid.main.service.StorySubmissionQueue;
+import com.nahid.main.service.StoryViewCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
 public class AppController {
 
+    private static final int PAGE_SIZE = 4;
+    private static final int TRENDING_SIZE = 20;
+    // Highest page number whose offset still fits the int offsets of the in-memory indexes
+    private static final int MAX_PAGE = Integer.MAX_VALUE / PAGE_SIZE - 1;
+
     private final StoryService storyService;
+    private final StorySubmissionQueue storySubmissionQueue;
+    private final StoryViewCounter storyViewCounter;
+    private final StoryFragmentCache storyFragmentCache;
+    private final StoryFeedBroadcaster storyFeedBroadcaster;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Homepage- <br>
      * Accessibility: Any types of visitors <br>
-     * Provides "Delete" feature for "ROLE_ADMIN"
+     * Provides "Delete" feature for "ROLE_ADMIN" <br>
+     * Paginated with opaque "after"/"before" cursors instead of page numbers <br>
+     * Filterable by "positive" and "storyFor", with story counts per facet; filtered pages use page numbers,
+     * and a page past the last one is redirected to the last one <br>
+     * The unfiltered first page follows "/stories/live" and shows new stories as they are posted <br>
+     * Anonymous visitors get 304 Not Modified while no story was added, edited or deleted
      */
     @GetMapping({"/","/home"})
-    public String homePage(@RequestParam(defaultValue = "0") int page, Model model, HttpServletRequest httpServletRequest){
+    public String homePage(@RequestParam(required = false) String after, @RequestParam(required = false) String before,
+                           @RequestParam(required = false) Boolean positive, @RequestParam(required = false) String storyFor,
+                           @RequestParam(defaultValue = "0") int page,
+                           Model model, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse,
+                           WebRequest webRequest){
+
+        if (isNotModified(httpServletRequest, httpServletResponse, webRequest,
+                storyService.getFeedETag(), storyService.getFeedLastModified())){
+            return null;
+        }
 
-        Pageable pageable = PageRequest.of(page, 4);
+        StoryFacetIndex.Selection selection = storyService.selectFacets(positive, storyFor);
 
-        Page<Story> storyPage = storyService.getStories(pageable);
+        FacetQuery facetQuery = FacetQuery.of("/", null, positive, storyFor);
 
-        int totalPages = storyPage.getTotalPages();
+        if (selection.isFiltered()){
+            page = clampPage(page);
+            Page<StorySummary> storyPage = storyService.getStories(selection, PageRequest.of(page, PAGE_SIZE));
+            if (storyPage.getTotalPages() > 0 && page + 1 > storyPage.getTotalPages()){
+                return "redirect:" + facetQuery.page(storyPage.getTotalPages() - 1);
+            }
+            model.addAttribute("storyList",storyPage.getContent());
+            model.addAttribute("totalPages",storyPage.getTotalPages());
+            model.addAttribute("currentPage",page);
+        } else {
+            StorySlice storySlice = storyService.getStories(after, before, PAGE_SIZE);
+            addSliceAttributes(model, storySlice);
+            if (after == null && before == null) {
+                model.addAttribute("liveFeed",true);
+            }
+        }
 
-        model.addAttribute("storyList",storyPage.getContent());
-        model.addAttribute("totalPages",totalPages);
-        model.addAttribute("currentPage",page);
+        addFacetAttributes(model, selection, facetQuery);
 
         if (httpServletRequest.isUserInRole("ADMIN")){
             model.addAttribute("isAdmin",true);
         }
 
-        if (totalPages == 0) {
-            return "home-page";
-        }
-
-        if(page+1 > storyPage.getTotalPages()){
-            return "redirect:/?page="+ (totalPages-1);
-        }
-
         return "home-page";
     }
 
     /**
      * Search Story- <br>
      * Accessibility: Any types of visitors <br>
-     * Provides "Delete" feature for "ROLE_ADMIN"
+     * Provides "Delete" feature for "ROLE_ADMIN" <br>
+     * Ranked by the in-memory search index, so plain page numbers are cheap here <br>
+     * Filterable by "positive" and "storyFor", with facet counts over the matches
      */
     @GetMapping("/search")
     public String searchStory(@RequestParam String searchQuery, @RequestParam(defaultValue = "0") int page,
+                              @RequestParam(required = false) Boolean positive, @RequestParam(required = false) String storyFor,
                               Model model, HttpServletRequest httpServletRequest){
 
-        Pageable pageable = PageRequest.of(page, 4);
+        page = clampPage(page);
+        Pageable pageable = PageRequest.of(page, PAGE_SIZE);
 
-        Page<Story> storyPage = storyService.searchStoryByNamePageable(searchQuery,pageable);
+        StoryFacetIndex.Selection selection = storyService.selectSearchFacets(positive, storyFor);
+        Page<StorySummary> storyPage = storyService.searchStories(searchQuery,selection,pageable);
 
         int totalPages = storyPage.getTotalPages();
 
@@ -74,60 +128,126 @@ public class AppController {
         model.addAttribute("totalPages",totalPages);
         model.addAttribute("currentPage",page);
         model.addAttribute("searchQuery",searchQuery);
+        FacetQuery facetQuery = FacetQuery.of("/search", searchQuery, positive, storyFor);
+        addFacetAttributes(model, selection, facetQuery);
 
         if (httpServletRequest.isUserInRole("ADMIN")){
             model.addAttribute("isAdmin",true);
         }
 
         if (totalPages == 0) {
+            countSearch("empty");
             return "home-page";
         }
 
         if(page+1 > storyPage.getTotalPages()){
-            return "redirect:/search?page="+ (totalPages-1) + "&searchQuery=" + searchQuery;
+            countSearch("overflow");
+            return "redirect:" + facetQuery.page(totalPages - 1);
         }
 
+        countSearch("results");
         return "home-page";
     }
 
+    /**
+     * Trending Stories- <br>
+     * Accessibility: Any types of visitors <br>
+     * Provides "Delete" feature for "ROLE_ADMIN" <br>
+     * Most viewed stories, recent views counting more than older ones
+     */
+    @GetMapping("/trending")
+    public String trendingStories(Model model, HttpServletRequest httpServletRequest){
+
+        model.addAttribute("storyList",storyService.getTrendingStories(TRENDING_SIZE));
+        model.addAttribute("trending",true);
+
+        if (httpServletRequest.isUserInRole("ADMIN")){
+            model.addAttribute("isAdmin",true);
+        }
+
+        return "home-page";
+    }
+
+    /**
+     * Search Suggestions- <br>
+     * Accessibility: Any types of visitors <br>
+     * Names of people with stories matching the typed text, as JSON, for the search box
+     */
+    @GetMapping(value = "/search/suggest", produces = "application/json")
+    @ResponseBody
+    public List<StoryForSuggestionIndex.Suggestion> suggestStoryFor(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "8") int limit){
+        return storyService.suggestStoryFor(q, Math.min(limit, StoryForSuggestionIndex.TOP_K));
+    }
+
+    /**
+     * Live Feed- <br>
+     * Accessibility: Any types of visitors <br>
+     * Server-Sent Events with the cards of stories as they are saved or edited, and the ids of deleted ones
+     */
+    @GetMapping(value = "/stories/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter liveFeed(){
+        return storyFeedBroadcaster.subscribe();
+    }
+
+    // Negative pages become the first one and huge ones the last page the indexes can address,
+    // which the overflow redirect then turns into the real last page
+    private static int clampPage(int page){
+        return Math.min(Math.max(page, 0), MAX_PAGE);
+    }
+
+    // "overflow" requests asked for a page past the last one and are redirected back to it
+    private void countSearch(String outcome){
+        meterRegistry.counter("stories.search.requests", "outcome", outcome).increment();
+    }
+
     /**
      * User Dashboard Page- <br>
      * Accessibility: only to "ROLE_USER" <br>
-     * Provides "EDIT" and "Delete" feature for "ROLE_USER"
+     * Provides "EDIT" and "Delete" feature for "ROLE_USER" <br>
+     * The first page also lists the user's stories still queued for saving
      */
     @GetMapping("/user/dashboard")
-    public String userDashboardPage(@RequestParam(defaultValue = "0") int page, Model model, HttpServletRequest httpServletRequest){
+    public String userDashboardPage(@RequestParam(required = false) String after, @RequestParam(required = false) String before,
+                                    Model model, HttpServletRequest httpServletRequest){
 
         String username = httpServletRequest.getUserPrincipal().getName();
 
-        Pageable pageable = PageRequest.of(page, 4);
-
-        Page<Story> storyPage = storyService.searchStoryByUserPageable(username, pageable);
-
-        int totalPages = storyPage.getTotalPages();
+        // Taken before the query, so a story saved in between is listed twice rather than not at all
+        List<Story> pendingList = after == null && before == null
+                ? storySubmissionQueue.getPendingStories(username) : List.of();
 
-        model.addAttribute("storyList",storyPage.getContent());
-        model.addAttribute("totalPages",totalPages);
-        model.addAttribute("currentPage",page);
+        StorySlice storySlice = storyService.searchStoryByUser(username, after, before, PAGE_SIZE);
 
-        if (totalPages == 0) {
-            return "user-dashboard-page";
-        }
+        addSliceAttributes(model, storySlice);
 
-        if(page+1 > storyPage.getTotalPages()){
-            return "redirect:/user/dashboard?page=" + (totalPages-1);
+        if (!pendingList.isEmpty()){
+            Set<UUID> listed = new HashSet<>();
+            storySlice.getContent().forEach(story -> listed.add(story.getStoryId()));
+            model.addAttribute("pendingList", pendingList.stream()
+                    .filter(story -> story.getStoryId() == null || !listed.contains(story.getStoryId()))
+                    .toList());
         }
 
         return "user-dashboard-page";
-
-
     }
 
+    private static void addFacetAttributes(Model model, StoryFacetIndex.Selection selection, FacetQuery facetQuery){
+        model.addAttribute("facets",selection.getFacets());
+        model.addAttribute("facetQuery",facetQuery);
+    }
 
+    private void addSliceAttributes(Model model, StorySlice storySlice){
+        model.addAttribute("storyList",storySlice.getContent());
+        model.addAttribute("nextCursor",storySlice.getNextCursor());
+        model.addAttribute("previousCursor",storySlice.getPreviousCursor());
+    }
 
     /**
      * Share story and Save Story to database- <br>
      * Accessibility: only to "ROLE_USER" <br>
+     * With write-behind submissions a full queue answers 503 with the form still filled in
      */
     @GetMapping("/user/story")
     public String postStoryPage(Model model){
@@ -137,26 +257,36 @@ public class AppController {
     }
 
     @PostMapping("/user/story")
-    public String saveStory(@ModelAttribute Story story, HttpServletRequest httpServletRequest)  {
+    public String saveStory(@ModelAttribute Story story, Model model, HttpServletRequest httpServletRequest,
+                            HttpServletResponse httpServletResponse)  {
 
         String username = httpServletRequest.getUserPrincipal().getName();
         LocalDateTime currentTime = LocalDateTime.now();
-        story.setStoryBy(username);
         story.setCreatedAt(currentTime);
 
-        storyService.saveStory(story);
+        if (!storySubmissionQueue.submit(username, story)){
+            httpServletResponse.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            httpServletResponse.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            model.addAttribute("mode","SUBMIT");
+            model.addAttribute("error","Too many stories are being shared right now, please submit again in a moment");
+            return "post-page";
+        }
         return "redirect:/user/dashboard";
     }
 
     /**
      * Edit story and Save Edite Story to database- <br>
-     * Accessibility: only to "ROLE_USER" <br>
+     * Accessibility: only to "ROLE_USER", and only for the user's own stories <br>
+     * Other users' stories are answered with 403 Forbidden
      */
     @GetMapping("/user/story/{storyId}/edit")
     public String editStory(@PathVariable UUID storyId,  @RequestHeader(value = "Referer", required = false) String referer,
-                            Model model){
+                            Model model, HttpServletRequest httpServletRequest){
 
         Story story = storyService.getStoryById(storyId);
+        if (story == null || !storyService.isAuthor(story, httpServletRequest.getUserPrincipal().getName())){
+            throw notYourStory();
+        }
         model.addAttribute("story",story);
         model.addAttribute("mode","UPDATE");
         model.addAttribute("referer",referer);
@@ -170,13 +300,10 @@ public class AppController {
                               @RequestParam(value = "referer", required = false) String referer,
                               HttpServletRequest httpServletRequest){
 
-        String username = httpServletRequest.getUserPrincipal().getName();
-        LocalDateTime currentTime = LocalDateTime.now();
-        story.setStoryId(storyId);
-        story.setStoryBy(username);
-        story.setCreatedAt(currentTime);
-
-        storyService.saveStory(story);
+        // Only the content changes, in one statement that also checks the author
+        if (!storyService.updateStory(storyId, httpServletRequest.getUserPrincipal().getName(), story)){
+            throw notYourStory();
+        }
 
         // Redirect back to the page the user came from
         if (referer != null && !referer.isEmpty()) {
@@ -191,11 +318,15 @@ public class AppController {
     /**
      * Delete story - <br>
      * Accessibility: only to "ROLE_USER" and "ROLE_ADMIN <br>
+     * Users can only delete their own stories, admins any story; otherwise 403 Forbidden
      */
     @PostMapping("/story/{storyId}/delete")
     public String deleteStory(@PathVariable UUID storyId, HttpServletRequest httpServletRequest,
                               @RequestHeader(value = "Referer", required = false) String referer){
-        storyService.deleteStoryById(storyId);
+        if (!storyService.deleteStory(storyId, httpServletRequest.getUserPrincipal().getName(),
+                httpServletRequest.isUserInRole("ADMIN"))){
+            throw notYourStory();
+        }
 
         if (httpServletRequest.isUserInRole("USER")){
             // Redirect back to the page the user came from
@@ -219,16 +350,55 @@ public class AppController {
     /**
      * See Full Story- <br>
      * Accessibility: Any types of visitors <br>
+     * Anonymous visitors get 304 Not Modified while the story's version is unchanged <br>
+     * Every view of an existing story is counted, revalidations included <br>
+     * The story itself is only loaded when its rendered post is not cached for this version
      */
     @GetMapping("/story/{storyId}")
-    public String storyDetails(@PathVariable UUID storyId, Model model){
-        Story story = storyService.getStoryById(storyId);
-        model.addAttribute("story",story);
+    public String storyDetails(@PathVariable UUID storyId, Model model, HttpServletRequest httpServletRequest,
+                               HttpServletResponse httpServletResponse, WebRequest webRequest){
+
+        StoryStamp stamp = storyService.getStoryStamp(storyId);
+        if (stamp == null){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Story not found");
+        }
+        storyViewCounter.recordView(storyId);
+        if (isNotModified(httpServletRequest, httpServletResponse, webRequest,
+                stamp.getETag(), stamp.getLastModified())){
+            return null;
+        }
+
+        String post = storyFragmentCache.render("post", stamp, () -> storyService.getStoryById(storyId));
+        if (post == null){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Story not found");
+        }
+        model.addAttribute("post",post);
 
         return "story-page";
 
     }
 
+    // A missing story and someone else's story look the same: no row matched
+    private static ResponseStatusException notYourStory(){
+        return new ResponseStatusException(HttpStatus.FORBIDDEN, "Story not found or not yours");
+    }
+
+    /**
+     * Conditional GET for pages whose content only depends on the stories shown. <br>
+     * Applies to anonymous visitors only: signed-in pages carry per-session parts (navigation,
+     * CSRF tokens) that the ETag does not cover, so they keep Spring Security's no-store headers. <br>
+     * Sets ETag and Last-Modified, and answers 304 when the client's copy matches
+     */
+    private boolean isNotModified(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse,
+                                  WebRequest webRequest, String etag, long lastModified){
+        if (httpServletRequest.getUserPrincipal() != null){
+            return false;
+        }
+        // Cacheable by the browser, but always revalidated; "private" keeps shared caches out
+        httpServletResponse.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return webRequest.checkNotModified(etag, lastModified);
+    }
+
 
 
 
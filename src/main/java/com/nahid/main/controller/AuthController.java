@@ -1,15 +1,20 @@
 package com.nahid.main.controller;
 
+import com.nahid.main.security.PasswordHashingBusyException;
 import com.nahid.main.service.UserService;
 import jakarta.annotation.Nullable;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.Map;
+
 @Controller
 @RequiredArgsConstructor
 public class AuthController {
@@ -19,15 +24,20 @@ public class AuthController {
     /**
      * Login Page- <br>
      * Accessibility: Any types of visitors<br>
-     * Failure Url = "/login?error=true"<br>
+     * Failure Url = "/login?error=true" ("/login?busy=true" when password hashing is saturated)<br>
      * Default Success Url = "/dashboard"
      */
     @GetMapping("/login")
-    public String loginPage(@RequestParam @Nullable String error, @RequestParam @Nullable String logout, RedirectAttributes redirectAttributes){
+    public String loginPage(@RequestParam @Nullable String error, @RequestParam @Nullable String logout,
+                            @RequestParam @Nullable String busy, RedirectAttributes redirectAttributes){
         if(error!= null && error.equals("true")){
             redirectAttributes.addFlashAttribute("error","Invalid credentials");
             return "redirect:/login";
         }
+        else if(busy != null && busy.equals("true")){
+            redirectAttributes.addFlashAttribute("error", PasswordHashingBusyException.MESSAGE);
+            return "redirect:/login";
+        }
         else if(logout != null && logout.equals("true")){
             redirectAttributes.addFlashAttribute("message","Logout Successful!");
             return "redirect:/login";
@@ -46,12 +56,26 @@ public class AuthController {
         return "registration-page";
     }
 
+    /**
+     * Username Check- <br>
+     * Accessibility: Any types of visitors <br>
+     * Whether a username is still free, as JSON, for the registration form; mostly answered from memory
+     */
+    @GetMapping(value = "/register/check", produces = "application/json")
+    @ResponseBody
+    public Map<String, Object> checkUsername(@RequestParam String username){
+        return Map.of("username", username, "available", userService.isUsernameAvailable(username));
+    }
+
     @PostMapping("/register")
     public String doUserRegistration(@RequestParam String username, @RequestParam String password, RedirectAttributes redirectAttributes){
         try {
             userService.registerUser(username,password);
             redirectAttributes.addFlashAttribute("message","Registration Successful!");
             return "redirect:/login";
+        } catch (DataIntegrityViolationException e) {
+            // Not a taken username: a server error, not a message for the form
+            throw e;
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error",e.getMessage());
         }
@@ -0,0 +1,133 @@
+package com.nahid.main.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.nahid.main.model.Story;
+import com.nahid.main.service.StoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final StoryService storyService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Export Stories- <br>
+     * Accessibility: only to "ROLE_ADMIN" <br>
+     * Streams every story as NDJSON (default) or CSV, oldest first, optionally limited to
+     * stories created in [from, to) or about one person. The author hash is never exported.
+     */
+    @GetMapping("/api/stories/export")
+    public ResponseEntity<StreamingResponseBody> exportStories(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String storyFor) {
+
+        boolean csv = format.equalsIgnoreCase("csv");
+        LocalDateTime start = from != null ? from : EARLIEST;
+        LocalDateTime end = to != null ? to : LATEST;
+
+        StreamingResponseBody body = outputStream -> {
+            long startNanos = System.nanoTime();
+            long rows = csv ? writeCsv(outputStream, start, end, storyFor) : writeNdjson(outputStream, start, end, storyFor);
+            long millis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            log.info("Exported {} stories as {} in {} ms ({} rows/s)", rows, csv ? "CSV" : "NDJSON", millis, rows * 1000 / millis);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=stories." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
+    private long writeNdjson(OutputStream outputStream, LocalDateTime from, LocalDateTime to, String storyFor) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            json.setRootValueSeparator(null);
+            return storyService.forEachStory(from, to, storyFor, story -> {
+                try {
+                    json.writeStartObject();
+                    json.writeStringField("storyId", String.valueOf(story.getStoryId()));
+                    json.writeStringField("storyFor", story.getStoryFor());
+                    json.writeStringField("title", story.getTitle());
+                    json.writeStringField("description", story.getDescription());
+                    if (story.getIsPositive() == null) {
+                        json.writeNullField("isPositive");
+                    } else {
+                        json.writeBooleanField("isPositive", story.getIsPositive());
+                    }
+                    json.writeStringField("createdAt", String.valueOf(story.getCreatedAt()));
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private long writeCsv(OutputStream outputStream, LocalDateTime from, LocalDateTime to, String storyFor) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024)) {
+            writer.write("storyId,storyFor,title,description,isPositive,createdAt\r\n");
+            return storyService.forEachStory(from, to, storyFor, story -> {
+                try {
+                    writer.write(String.valueOf(story.getStoryId()));
+                    writer.write(',');
+                    writeCsvField(writer, story.getStoryFor());
+                    writer.write(',');
+                    writeCsvField(writer, story.getTitle());
+                    writer.write(',');
+                    writeCsvField(writer, story.getDescription());
+                    writer.write(',');
+                    writer.write(String.valueOf(story.getIsPositive()));
+                    writer.write(',');
+                    writer.write(String.valueOf(story.getCreatedAt()));
+                    writer.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes an RFC 4180 field, quoting it when it contains a comma, quote or line break.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) return;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
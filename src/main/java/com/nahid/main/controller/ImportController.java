@@ -0,0 +1,37 @@
+package com.nahid.main.controller;
+
+import com.nahid.main.model.StoryImportResult;
+import com.nahid.main.service.StoryImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+@RestController
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final StoryImportService storyImportService;
+
+    /**
+     * Import Stories- <br>
+     * Accessibility: only to "ROLE_ADMIN" <br>
+     * Reads a streamed upload of stories, as CSV ("text/csv") or as NDJSON / a JSON array
+     * (anything else), and stores them in batches. Invalid rows are reported, not fatal. <br>
+     * Authenticated with HTTP Basic on every request, without a session or CSRF token,
+     * e.g. {@code curl -u admin:password -H "Content-Type: text/csv" --data-binary @stories.csv}.
+     */
+    @PostMapping("/api/stories/import")
+    public StoryImportResult importStories(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                           InputStream body) throws IOException {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")) {
+            return storyImportService.importCsv(body);
+        }
+        return storyImportService.importJson(body);
+    }
+}
@@ -0,0 +1,342 @@
+package com.nahid.main.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints, laid out like a Roaring bitmap.
+ *
+ * <p>Values are split into a 16-bit key (the high half) and a 16-bit low half. Each key present
+ * has one container for its 65536 possible low halves: a sorted {@code char[]} while it holds at
+ * most {@value #ARRAY_MAX} values (2 bytes per value), a fixed 8 KB {@code long[]} bitset above
+ * that. A sparse facet therefore costs about two bytes per story and a dense one an eighth of a
+ * byte, and intersections work container by container, merging arrays, probing an array against
+ * a bitset or ANDing words.</p>
+ *
+ * <p>Every container knows its cardinality, so {@link #descending(int, int)} skips whole
+ * containers to reach a page. Not thread-safe; {@link StoryFacetIndex} guards its bitmaps.</p>
+ */
+public class CompressedBitmap {
+
+    /** Largest array container; beyond it a bitset is smaller. */
+    static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) return;
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /** New bitmap of the values in both this and {@code other}. */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0) {
+                    result.insertContainer(result.size, keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Values from the largest down, after skipping the {@code offset} largest.
+     *
+     * @return at most {@code limit} values in descending order
+     * @throws IllegalArgumentException if {@code offset} or {@code limit} is negative
+     */
+    public int[] descending(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        int[] values = new int[limit];
+        int found = 0;
+        int skip = offset;
+        for (int i = size - 1; i >= 0 && found < limit; i--) {
+            Container container = containers[i];
+            if (skip >= container.cardinality) {
+                skip -= container.cardinality;
+                continue;
+            }
+            found = container.descending(keys[i] << 16, skip, values, found);
+            skip = 0;
+        }
+        return found == limit ? values : Arrays.copyOf(values, found);
+    }
+
+    /** Approximate heap taken by the containers, in bytes. */
+    public long getSizeInBytes() {
+        long bytes = 16 + 2L * keys.length + 4L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].getSizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int indexOf(char key) {
+        // Appends to the last container are by far the most common case
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /** The low halves of one key. Mutators return the container to keep, which may be a converted one. */
+    private abstract static class Container {
+        int cardinality;
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract Container and(Container other);
+
+        /** Writes its values largest first, less the {@code skip} largest, into {@code out} from {@code found}; returns the new count. */
+        abstract int descending(int high, int skip, int[] out, int found);
+
+        abstract long getSizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values;
+
+        ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = cardinality > 0 && values[cardinality - 1] < value
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) return this;
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) return this;
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int descending(int high, int skip, int[] out, int found) {
+            for (int i = cardinality - 1 - skip; i >= 0 && found < out.length; i--) {
+                out[found++] = high | values[i];
+            }
+            return found;
+        }
+
+        @Override
+        long getSizeInBytes() {
+            return 32 + 2L * values.length;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words = new long[1024];
+
+        @Override
+        Container add(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+            if ((word & bit) == 0) {
+                words[value >>> 6] = word | bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+            if ((word & bit) == 0) return this;
+            words[value >>> 6] = word & ~bit;
+            cardinality--;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            BitmapContainer result = new BitmapContainer();
+            int cardinality = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i] & otherWords[i];
+                result.words[i] = word;
+                cardinality += Long.bitCount(word);
+            }
+            result.cardinality = cardinality;
+            return cardinality <= ARRAY_MAX ? result.toArray() : result;
+        }
+
+        @Override
+        int descending(int high, int skip, int[] out, int found) {
+            for (int i = words.length - 1; i >= 0 && found < out.length; i--) {
+                long word = words[i];
+                int bits = Long.bitCount(word);
+                if (skip >= bits) {
+                    skip -= bits;
+                    continue;
+                }
+                while (word != 0 && found < out.length) {
+                    int bit = 63 - Long.numberOfLeadingZeros(word);
+                    word &= ~(1L << bit);
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        out[found++] = high | (i << 6) | bit;
+                    }
+                }
+            }
+            return found;
+        }
+
+        @Override
+        long getSizeInBytes() {
+            return 32 + 8L * words.length;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
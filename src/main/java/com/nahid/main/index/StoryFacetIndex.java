@@ -0,0 +1,444 @@
+package com.nahid.main.index;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory facets of every story: its sentiment ({@code isPositive}) and the person it is about
+ * ({@code storyFor}), for filtered browsing with live counts.
+ *
+ * <p>Each story gets an ordinal in the order it is added, which is creation order since stories
+ * are indexed oldest first at startup and as they are posted. Every facet value keeps a
+ * {@link CompressedBitmap} of its ordinals, so a filter is one bitmap or the intersection of two,
+ * and its newest stories are the largest ordinals. A story added with an older creation time than
+ * one already indexed, as a backdated import does, is out of place until {@link #reorder()}
+ * renumbers every story in (createdAt, storyId) order. Names are normalized like the suggestions, so "Mr. Rahman" and "mr rahman"
+ * are one facet. Counts per name and sentiment are kept as plain ints, which makes facet counts a
+ * scan over the names rather than a bitmap operation per name.</p>
+ *
+ * <p>An edit keeps the story's ordinal and only moves its bits. A deleted ordinal is not reused;
+ * the arrays shrink when the index is rebuilt. Reads share a lock, writes are exclusive.</p>
+ */
+@Component
+public class StoryFacetIndex {
+
+    /** Names listed with their counts, besides the selected one. */
+    public static final int NAME_FACETS = 10;
+
+    private static final byte NEGATIVE = 0;
+    private static final byte POSITIVE = 1;
+    private static final byte UNKNOWN = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<String, Name> namesByKey = new HashMap<>();
+    private final List<Name> names = new ArrayList<>();
+    private UUID[] storyIds = new UUID[1024];
+    private Name[] storyNames = new Name[1024];
+    private byte[] sentiments = new byte[1024];
+    private long[] createdAt = new long[1024];
+    private int nextOrdinal;
+    private long newestCreatedAt = Long.MIN_VALUE;
+    private boolean outOfOrder;
+    private CompressedBitmap live = new CompressedBitmap();
+    private CompressedBitmap positive = new CompressedBitmap();
+    private CompressedBitmap negative = new CompressedBitmap();
+
+    /**
+     * Adds a story as the newest one, or moves an indexed one to its new facet values.
+     */
+    public void add(UUID storyId, String storyFor, Boolean isPositive) {
+        add(storyId, storyFor, isPositive, null);
+    }
+
+    /**
+     * Adds a story, or moves an indexed one to its new facet values.
+     *
+     * @param createdAt creation time of a new story, which places it among the others;
+     *                  {@code null} counts as the newest. Ignored for an indexed story.
+     */
+    public void add(UUID storyId, String storyFor, Boolean isPositive, LocalDateTime createdAt) {
+        String key = StoryForSuggestionIndex.normalize(storyFor);
+        byte sentiment = isPositive == null ? UNKNOWN : isPositive ? POSITIVE : NEGATIVE;
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(storyId);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                uncount(ordinal);
+            } else {
+                ordinal = nextOrdinal++;
+                if (ordinal == storyIds.length) {
+                    storyIds = Arrays.copyOf(storyIds, ordinal * 2);
+                    storyNames = Arrays.copyOf(storyNames, ordinal * 2);
+                    sentiments = Arrays.copyOf(sentiments, ordinal * 2);
+                    this.createdAt = Arrays.copyOf(this.createdAt, ordinal * 2);
+                }
+                long time = createdAt == null ? newestCreatedAt : toKey(createdAt);
+                if (time < newestCreatedAt) {
+                    outOfOrder = true;
+                }
+                newestCreatedAt = Math.max(newestCreatedAt, time);
+                this.createdAt[ordinal] = time;
+                storyIds[ordinal] = storyId;
+                ordinals.put(storyId, ordinal);
+                live.add(ordinal);
+            }
+
+            Name name = key.isEmpty() ? null : namesByKey.computeIfAbsent(key, k -> {
+                Name created = new Name(k, storyFor.trim().replaceAll("\\s+", " "));
+                names.add(created);
+                return created;
+            });
+            storyNames[ordinal] = name;
+            sentiments[ordinal] = sentiment;
+            if (sentiment == POSITIVE) positive.add(ordinal);
+            if (sentiment == NEGATIVE) negative.add(ordinal);
+            if (name != null) {
+                name.stories.add(ordinal);
+                name.count(sentiment, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a story. Unknown ids are ignored.
+     */
+    public void remove(UUID storyId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(storyId);
+            if (ordinal == null) return;
+            uncount(ordinal);
+            live.remove(ordinal);
+            storyIds[ordinal] = null;
+            storyNames[ordinal] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every indexed story.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            namesByKey.clear();
+            names.clear();
+            storyIds = new UUID[1024];
+            storyNames = new Name[1024];
+            sentiments = new byte[1024];
+            createdAt = new long[1024];
+            nextOrdinal = 0;
+            newestCreatedAt = Long.MIN_VALUE;
+            outOfOrder = false;
+            live = new CompressedBitmap();
+            positive = new CompressedBitmap();
+            negative = new CompressedBitmap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Renumbers every story in (createdAt, storyId) order, if any was added out of that order,
+     * so the filtered listings are newest first again. Sorts all stories; meant to run once
+     * after a bulk import rather than per story.
+     */
+    public void reorder() {
+        lock.writeLock().lock();
+        try {
+            if (!outOfOrder) return;
+            Integer[] order = ordinals.values().toArray(new Integer[0]);
+            Arrays.sort(order, Comparator.<Integer>comparingLong(ordinal -> createdAt[ordinal])
+                    .thenComparing(ordinal -> storyIds[ordinal]));
+
+            UUID[] sortedIds = new UUID[storyIds.length];
+            Name[] sortedNames = new Name[storyIds.length];
+            byte[] sortedSentiments = new byte[storyIds.length];
+            long[] sortedCreatedAt = new long[storyIds.length];
+            live = new CompressedBitmap();
+            positive = new CompressedBitmap();
+            negative = new CompressedBitmap();
+            for (Name name : names) {
+                name.stories = new CompressedBitmap();
+            }
+            for (int ordinal = 0; ordinal < order.length; ordinal++) {
+                int previous = order[ordinal];
+                sortedIds[ordinal] = storyIds[previous];
+                sortedNames[ordinal] = storyNames[previous];
+                sortedSentiments[ordinal] = sentiments[previous];
+                sortedCreatedAt[ordinal] = createdAt[previous];
+                ordinals.put(sortedIds[ordinal], ordinal);
+                live.add(ordinal);
+                if (sortedSentiments[ordinal] == POSITIVE) positive.add(ordinal);
+                if (sortedSentiments[ordinal] == NEGATIVE) negative.add(ordinal);
+                if (sortedNames[ordinal] != null) sortedNames[ordinal].stories.add(ordinal);
+            }
+            storyIds = sortedIds;
+            storyNames = sortedNames;
+            sentiments = sortedSentiments;
+            createdAt = sortedCreatedAt;
+            nextOrdinal = order.length;
+            outOfOrder = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Approximate heap taken by the bitmaps and per-story arrays, in bytes. */
+    public long estimateMemory() {
+        lock.readLock().lock();
+        try {
+            long bytes = live.getSizeInBytes() + positive.getSizeInBytes() + negative.getSizeInBytes()
+                    + 17L * storyIds.length + 48L * ordinals.size();
+            for (Name name : names) {
+                bytes += name.stories.getSizeInBytes() + 64 + 2L * name.display.length();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a selection of the stories with the given facet values.
+     *
+     * @param isPositive the sentiment to keep, or {@code null} for both
+     * @param storyFor   the name to keep, or {@code null} or blank for all
+     */
+    public Selection select(Boolean isPositive, String storyFor) {
+        return new Selection(isPositive, storyFor, false);
+    }
+
+    /**
+     * Like {@link #select(Boolean, String)}, but its facets only count the stories it is asked to
+     * {@link Selection#test(UUID) test}, the matches of a search, none if it tests none.
+     */
+    public Selection selectAmongMatches(Boolean isPositive, String storyFor) {
+        return new Selection(isPositive, storyFor, true);
+    }
+
+    /**
+     * The selected stories, newest first.
+     *
+     * @param offset number of stories to skip
+     * @param limit  maximum number of ids to return
+     * @return the requested window of story ids and the total number of selected stories
+     */
+    public StorySearchIndex.Hits find(Selection selection, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap stories = live;
+            if (selection.sentiment != UNKNOWN) {
+                stories = selection.sentiment == POSITIVE ? positive : negative;
+            }
+            if (selection.nameKey != null) {
+                Name name = namesByKey.get(selection.nameKey);
+                if (name == null) return new StorySearchIndex.Hits(List.of(), 0);
+                stories = selection.sentiment == UNKNOWN ? name.stories : stories.and(name.stories);
+            }
+
+            int[] window = stories.descending(offset, limit);
+            List<UUID> storyIds = new ArrayList<>(window.length);
+            for (int ordinal : window) {
+                storyIds.add(this.storyIds[ordinal]);
+            }
+            return new StorySearchIndex.Hits(storyIds, stories.getCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Creation time as nanoseconds since the epoch, in the local time the stories are stored in. */
+    private static long toKey(LocalDateTime createdAt) {
+        return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + createdAt.getNano();
+    }
+
+    private void uncount(int ordinal) {
+        byte sentiment = sentiments[ordinal];
+        if (sentiment == POSITIVE) positive.remove(ordinal);
+        if (sentiment == NEGATIVE) negative.remove(ordinal);
+        Name name = storyNames[ordinal];
+        if (name != null) {
+            name.stories.remove(ordinal);
+            name.count(sentiment, -1);
+        }
+    }
+
+    /**
+     * Filter values plus the facet counts that go with them.
+     *
+     * <p>Used as a {@link Predicate} by {@link StorySearchIndex#search(String, int, int, Predicate)},
+     * it tests every matching story and, made by {@link #selectAmongMatches}, tallies the facets
+     * over those matches. Otherwise the counts cover all stories. Each facet is counted under the
+     * other facet's filter only, so the counts tell what choosing another value would give. Meant
+     * for one request and one thread.</p>
+     */
+    public final class Selection implements Predicate<UUID> {
+
+        private final byte sentiment;
+        private final String nameKey;
+        private final Map<Name, int[]> tally;
+        private int positiveCount;
+        private int negativeCount;
+
+        private Selection(Boolean isPositive, String storyFor, boolean amongMatches) {
+            String key = StoryForSuggestionIndex.normalize(storyFor);
+            this.sentiment = isPositive == null ? UNKNOWN : isPositive ? POSITIVE : NEGATIVE;
+            this.nameKey = key.isEmpty() ? null : key;
+            this.tally = amongMatches ? new HashMap<>() : null;
+        }
+
+        /** Whether any facet value is chosen. */
+        public boolean isFiltered() {
+            return sentiment != UNKNOWN || nameKey != null;
+        }
+
+        /** Tells whether the story is selected, tallying its facets if this counts among matches. */
+        @Override
+        public boolean test(UUID storyId) {
+            lock.readLock().lock();
+            try {
+                Integer ordinal = ordinals.get(storyId);
+                if (ordinal == null) return false;
+                Name name = storyNames[ordinal];
+                byte storySentiment = sentiments[ordinal];
+                boolean nameSelected = nameKey == null || name != null && name.key.equals(nameKey);
+                boolean sentimentSelected = sentiment == UNKNOWN || storySentiment == sentiment;
+
+                if (tally != null && nameSelected) {
+                    if (storySentiment == POSITIVE) positiveCount++;
+                    if (storySentiment == NEGATIVE) negativeCount++;
+                }
+                if (tally != null && sentimentSelected && name != null) {
+                    tally.computeIfAbsent(name, n -> new int[1])[0]++;
+                }
+                return nameSelected && sentimentSelected;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Counts of the sentiments, and of the {@value #NAME_FACETS} names with most stories plus
+         * the selected name, over the tested stories or all stories, see {@link #selectAmongMatches}.
+         */
+        public Facets getFacets() {
+            lock.readLock().lock();
+            try {
+                if (tally != null) {
+                    return new Facets(positiveCount, negativeCount, topNames(tally.keySet(), name -> tally.get(name)[0]));
+                }
+                Name selected = nameKey == null ? null : namesByKey.get(nameKey);
+                int positives = nameKey == null ? positive.getCardinality() : selected == null ? 0 : selected.positive;
+                int negatives = nameKey == null ? negative.getCardinality() : selected == null ? 0 : selected.negative;
+                return new Facets(positives, negatives, topNames(names, name -> sentiment == POSITIVE ? name.positive
+                        : sentiment == NEGATIVE ? name.negative
+                        : name.stories.getCardinality()));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /** The selected name, then the others with most stories, by insertion into a short sorted array. */
+        private List<NameCount> topNames(Iterable<Name> candidates, ToIntFunction<Name> counter) {
+            Name[] top = new Name[NAME_FACETS];
+            int[] counts = new int[NAME_FACETS];
+            int size = 0;
+            NameCount selected = null;
+            for (Name name : candidates) {
+                int count = counter.applyAsInt(name);
+                if (count == 0) continue;
+                if (name.key.equals(nameKey)) {
+                    selected = new NameCount(name.display, count, true);
+                    continue;
+                }
+                if (size == NAME_FACETS && !ranksBefore(name, count, top[size - 1], counts[size - 1])) continue;
+                int i = size < NAME_FACETS ? size++ : size - 1;
+                for (; i > 0 && ranksBefore(name, count, top[i - 1], counts[i - 1]); i--) {
+                    top[i] = top[i - 1];
+                    counts[i] = counts[i - 1];
+                }
+                top[i] = name;
+                counts[i] = count;
+            }
+
+            List<NameCount> result = new ArrayList<>(size + 1);
+            if (selected != null) result.add(selected);
+            for (int i = 0; i < size; i++) {
+                result.add(new NameCount(top[i].display, counts[i], false));
+            }
+            return result;
+        }
+
+        private static boolean ranksBefore(Name name, int count, Name other, int otherCount) {
+            return count > otherCount || count == otherCount && name.display.compareTo(other.display) < 0;
+        }
+    }
+
+    /**
+     * Story counts per facet value for the current selection.
+     */
+    @Value
+    public static class Facets {
+        int positive;
+        int negative;
+        /** The selected name first, then the names with most stories. */
+        List<NameCount> names;
+    }
+
+    @Value
+    public static class NameCount {
+        String name;
+        int count;
+        boolean selected;
+    }
+
+    private static final class Name {
+        final String key;
+        final String display;
+        CompressedBitmap stories = new CompressedBitmap();
+        int positive;
+        int negative;
+
+        Name(String key, String display) {
+            this.key = key;
+            this.display = display;
+        }
+
+        void count(byte sentiment, int delta) {
+            if (sentiment == POSITIVE) positive += delta;
+            if (sentiment == NEGATIVE) negative += delta;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.nahid.main.index;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie of the {@code storyFor} names of all stories, for search-as-you-type suggestions.
+ *
+ * <p>Names are normalized like search terms (lower case, words of letters and digits joined by
+ * single spaces) and counted per story, so "Mr. Rahman" and "mr rahman" are one name. Each name
+ * is inserted once for every word it contains, so typing "rah" finds "Mr. Rahman" as well as
+ * "Rahima". Every node keeps the {@value #TOP_K} most frequent names below it, so a lookup only
+ * walks the typed prefix. A name whose count grew can only move up in those lists; only when a
+ * listed name loses a story is the node's list rebuilt from its children's lists.</p>
+ *
+ * <p>The index also remembers the name of every story, so updates and deletions can be applied
+ * with nothing but the story id. Children are kept in sorted arrays rather than maps to keep
+ * nodes small; {@link #estimateMemory()} reports the approximate heap taken. Reads share a lock,
+ * writes are exclusive.</p>
+ */
+@Component
+public class StoryForSuggestionIndex {
+
+    /** Names kept per node, the most a lookup can return. */
+    public static final int TOP_K = 10;
+
+    private static final Comparator<Name> MOST_FREQUENT = Comparator.comparingInt((Name name) -> -name.count)
+            .thenComparing(name -> name.display);
+    private static final Name[] NO_NAMES = new Name[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Name> names = new HashMap<>();
+    private final Map<UUID, Name> storyNames = new HashMap<>();
+    private Node root = new Node();
+    private int nodeCount = 1;
+
+    /**
+     * Counts the story under its name, replacing the name it had before.
+     */
+    public void add(UUID storyId, String storyFor) {
+        String key = normalize(storyFor);
+        lock.writeLock().lock();
+        try {
+            Name previous = storyNames.get(storyId);
+            if (previous != null && previous.key.equals(key)) return;
+            removeLocked(storyId);
+            if (key.isEmpty()) return;
+
+            Name name = names.get(key);
+            if (name == null) {
+                name = new Name(key, storyFor.trim().replaceAll("\\s+", " "));
+                names.put(key, name);
+                name.count = 1;
+                insert(name);
+            } else {
+                name.count++;
+                for (int start : wordStarts(key)) {
+                    promote(path(key, start, false), name);
+                }
+            }
+            storyNames.put(storyId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Uncounts a story. Unknown ids are ignored.
+     */
+    public void remove(UUID storyId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(storyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            storyNames.clear();
+            root = new Node();
+            nodeCount = 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the most frequent names with a word starting with the typed text.
+     *
+     * @param prefix text typed by the user; the last word may be incomplete
+     * @param limit  maximum number of names, at most {@value #TOP_K}
+     * @return display names with the number of stories about them, most stories first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) return List.of();
+
+            int size = Math.min(limit, node.top.length);
+            List<Suggestion> suggestions = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                suggestions.add(new Suggestion(node.top[i].display, node.top[i].count));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of distinct names. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap taken by the trie, the names and the story lookup, in bytes, assuming a
+     * 64-bit JVM with compressed references. A bound for monitoring, not an exact measurement.
+     */
+    public long estimateMemory() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            List<Node> pending = new ArrayList<>(List.of(root));
+            while (!pending.isEmpty()) {
+                Node node = pending.remove(pending.size() - 1);
+                bytes += 32 + array(2L * node.labels.length) + array(4L * node.children.length)
+                        + array(4L * node.top.length) + array(4L * node.names.length);
+                pending.addAll(Arrays.asList(node.children));
+            }
+            for (Name name : names.values()) {
+                // Name object, two strings, and the entry in the names map
+                bytes += 24 + 2 * (24 + array(name.display.length())) + 48;
+            }
+            // UUID plus the entry in the story map
+            bytes += storyNames.size() * (32L + 48);
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of trie nodes. */
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", StorySearchIndex.tokenize(text));
+    }
+
+    private void removeLocked(UUID storyId) {
+        Name name = storyNames.remove(storyId);
+        if (name == null) return;
+        name.count--;
+        if (name.count > 0) {
+            for (int start : wordStarts(name.key)) {
+                demote(path(name.key, start, false), name);
+            }
+        } else {
+            names.remove(name.key);
+            delete(name);
+        }
+    }
+
+    /** Adds the name under each of its words. */
+    private void insert(Name name) {
+        for (int start : wordStarts(name.key)) {
+            List<Node> path = path(name.key, start, true);
+            Node last = path.get(path.size() - 1);
+            last.names = append(last.names, name);
+            promote(path, name);
+        }
+    }
+
+    /** Removes the name from under each of its words and prunes nodes left empty. */
+    private void delete(Name name) {
+        for (int start : wordStarts(name.key)) {
+            List<Node> path = path(name.key, start, false);
+            Node last = path.get(path.size() - 1);
+            last.names = Arrays.stream(last.names).filter(other -> other != name).toArray(Name[]::new);
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node node = path.get(i);
+                if (node.children.length > 0 || node.names.length > 0) break;
+                path.get(i - 1).removeChild(name.key.charAt(start + i - 1));
+                nodeCount--;
+            }
+            demote(path, name);
+        }
+    }
+
+    /** Nodes from the root to the end of {@code key.substring(start)}, created if asked. */
+    private List<Node> path(String key, int start, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() - start + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = start; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                if (!create) throw new IllegalStateException("Name not indexed: " + key);
+                child = node.addChild(key.charAt(i));
+                nodeCount++;
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /** Moves a name whose count grew into, or up in, the top lists along its path. */
+    private static void promote(List<Node> path, Name name) {
+        for (Node node : path) {
+            Name[] top = node.top;
+            int index = indexOf(top, name);
+            if (index < 0) {
+                if (top.length < TOP_K) {
+                    top = append(top, name);
+                } else if (MOST_FREQUENT.compare(name, top[top.length - 1]) < 0) {
+                    top = top.clone();
+                    top[top.length - 1] = name;
+                } else {
+                    continue;
+                }
+                index = top.length - 1;
+            } else {
+                top = top.clone();
+            }
+            // Bubble up to its place; the rest of the list is still sorted
+            for (; index > 0 && MOST_FREQUENT.compare(top[index], top[index - 1]) < 0; index--) {
+                Name swap = top[index];
+                top[index] = top[index - 1];
+                top[index - 1] = swap;
+            }
+            node.top = top;
+        }
+    }
+
+    /**
+     * Rebuilds, from the deepest node up, the top lists along the path that hold a name whose count
+     * shrank or that was removed: a name outside the list may now rank above it. A detached tail is harmless.
+     */
+    private static void demote(List<Node> path, Name name) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (indexOf(node.top, name) < 0) continue;
+
+            List<Name> candidates = new ArrayList<>();
+            for (Name own : node.names) candidates.add(own);
+            for (Node child : node.children) {
+                for (Name below : child.top) {
+                    if (indexOf(node.names, below) < 0 && !containsSame(candidates, below)) candidates.add(below);
+                }
+            }
+            candidates.sort(MOST_FREQUENT);
+            node.top = candidates.subList(0, Math.min(TOP_K, candidates.size())).toArray(NO_NAMES);
+        }
+    }
+
+    private static int indexOf(Name[] names, Name name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == name) return i;
+        }
+        return -1;
+    }
+
+    private static boolean containsSame(List<Name> names, Name name) {
+        for (Name other : names) {
+            if (other == name) return true;
+        }
+        return false;
+    }
+
+    private static List<Integer> wordStarts(String key) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) == ' ') starts.add(i + 1);
+        }
+        return starts;
+    }
+
+    private static Name[] append(Name[] names, Name name) {
+        Name[] copy = Arrays.copyOf(names, names.length + 1);
+        copy[names.length] = name;
+        return copy;
+    }
+
+    private static long array(long payload) {
+        return (16 + payload + 7) & ~7L;
+    }
+
+    private static final class Name {
+        final String key;
+        final String display;
+        int count;
+
+        Name(String key, String display) {
+            this.key = key;
+            this.display = display;
+        }
+    }
+
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        Name[] names = NO_NAMES;
+        Name[] top = NO_NAMES;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char label) {
+            int index = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = label;
+            Node child = new Node();
+            newChildren[index] = child;
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) return;
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+
+    /**
+     * A suggested name and the number of stories about it.
+     */
+    @Value
+    public static class Suggestion {
+        String name;
+        int count;
+    }
+}
@@ -0,0 +1,329 @@
+package com.nahid.main.index;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over the {@code storyFor}, {@code title} and {@code description} of every story.
+ *
+ * <p>Each story gets an internal ordinal; every term keeps a posting list of the ordinals that
+ * contain it together with a field-weighted term frequency (a match in {@code storyFor} counts
+ * more than one in the title, which counts more than one in the description). Queries match
+ * stories that contain every query term, treat the last term as a prefix so that partially typed
+ * names still match, and rank hits with BM25.</p>
+ *
+ * <p>Updates replace the story under a new ordinal and leave a tombstone behind. Tombstoned
+ * postings are skipped at query time (they still count towards document frequencies until then)
+ * and are dropped by {@link #compact()} once they make up a quarter of the index. Reads share
+ * a lock, writes are exclusive.</p>
+ */
+@Component
+public class StorySearchIndex {
+
+    private static final float STORY_FOR_WEIGHT = 3f;
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private UUID[] storyIds = new UUID[1024];
+    private float[] lengths = new float[1024];
+    private int nextOrdinal;
+    private int tombstones;
+    private double totalLength;
+
+    /**
+     * Adds a story to the index, replacing any previous version of it.
+     */
+    public void index(UUID storyId, String storyFor, String title, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        float length = addTerms(weights, storyFor, STORY_FOR_WEIGHT)
+                + addTerms(weights, title, TITLE_WEIGHT)
+                + addTerms(weights, description, DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(storyId);
+            int ordinal = nextOrdinal++;
+            if (ordinal == storyIds.length) {
+                storyIds = Arrays.copyOf(storyIds, ordinal * 2);
+                lengths = Arrays.copyOf(lengths, ordinal * 2);
+            }
+            storyIds[ordinal] = storyId;
+            lengths[ordinal] = length;
+            totalLength += length;
+            ordinals.put(storyId, ordinal);
+            weights.forEach((term, weight) -> terms.computeIfAbsent(term, t -> new PostingList()).add(ordinal, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a story from the index. Unknown ids are ignored.
+     */
+    public void remove(UUID storyId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(storyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every indexed story.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            ordinals.clear();
+            storyIds = new UUID[1024];
+            lengths = new float[1024];
+            nextOrdinal = 0;
+            tombstones = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the stories that contain every term of the query, best match first.
+     * Equal scores are ordered by the most recently indexed story first.
+     *
+     * @param query  free text typed by the user
+     * @param offset number of ranked hits to skip; an offset past the last hit returns no ids
+     * @param limit  maximum number of ids to return
+     * @return the requested window of ranked story ids and the total number of hits
+     * @throws IllegalArgumentException if {@code offset} or {@code limit} is negative
+     */
+    public Hits search(String query, int offset, int limit) {
+        return search(query, offset, limit, null);
+    }
+
+    /**
+     * Like {@link #search(String, int, int)}, keeping only the matching stories {@code filter} accepts.
+     * The filter sees every matching story once, before ranking, so it can also tally them.
+     *
+     * @param filter tests matching story ids, or {@code null} to keep all
+     * @return the requested window of ranked story ids and the total number of accepted stories
+     */
+    public Hits search(String query, int offset, int limit, Predicate<UUID> filter) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = ordinals.size();
+            float averageLength = liveDocs == 0 ? 1f : (float) (totalLength / liveDocs);
+
+            Map<Integer, Float> scores = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean prefix = i == queryTerms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+                Map<Integer, Float> termScores = scoreTerm(term, prefix, liveDocs, averageLength, scores);
+                if (termScores.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+                scores = termScores;
+            }
+
+            // Never more than the matches, so a page far past the end costs a count, not a huge heap
+            int wanted = (int) Math.min((long) offset + limit, offset >= scores.size() ? 0 : scores.size());
+            Comparator<Map.Entry<Integer, Float>> ranking = Map.Entry.<Integer, Float>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey());
+            PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(ranking);
+            int total = 0;
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                if (filter != null && !filter.test(storyIds[entry.getKey()])) continue;
+                total++;
+                if (wanted == 0) continue;
+                top.offer(entry);
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            List<UUID> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(storyIds[top.poll().getKey()]);
+            }
+            Collections.reverse(ranked);
+            List<UUID> window = offset >= ranked.size() ? List.of() : List.copyOf(ranked.subList(offset, ranked.size()));
+            return new Hits(window, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased letter/digit tokens.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            boolean wordChar = Character.isLetterOrDigit(codePoint);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            tokens.add(lower.substring(start));
+        }
+        return tokens;
+    }
+
+    private static float addTerms(Map<String, Float> weights, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            weights.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Scores one query term (or every term it prefixes) against the live stories,
+     * keeping only the stories that are already candidates when {@code candidates} is given.
+     */
+    private Map<Integer, Float> scoreTerm(String term, boolean prefix, int liveDocs, float averageLength,
+                                          Map<Integer, Float> candidates) {
+        Map<String, PostingList> matching = prefix
+                ? terms.subMap(term, true, term + Character.MAX_VALUE, false)
+                : (terms.containsKey(term) ? Map.of(term, terms.get(term)) : Map.of());
+
+        Map<Integer, Float> termScores = new HashMap<>();
+        for (PostingList postings : matching.values()) {
+            double idf = Math.log(1 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int ordinal = postings.ordinals[i];
+                if (storyIds[ordinal] == null) continue;
+                if (candidates != null && !candidates.containsKey(ordinal)) continue;
+                float tf = postings.weights[i];
+                float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                termScores.merge(ordinal, (float) (idf * tf * (K1 + 1) / (tf + norm)), Float::sum);
+            }
+        }
+        if (candidates != null) {
+            termScores.replaceAll((ordinal, score) -> score + candidates.get(ordinal));
+        }
+        return termScores;
+    }
+
+    private void removeLocked(UUID storyId) {
+        Integer ordinal = ordinals.remove(storyId);
+        if (ordinal == null) return;
+        storyIds[ordinal] = null;
+        totalLength -= lengths[ordinal];
+        tombstones++;
+        if (tombstones * 4 > nextOrdinal) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the postings without tombstoned stories. Ordinals keep their relative order.
+     * Must be called with the write lock held.
+     */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (storyIds[ordinal] == null) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                storyIds[live] = storyIds[ordinal];
+                lengths[live] = lengths[ordinal];
+                ordinals.put(storyIds[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(storyIds, live, nextOrdinal, null);
+        nextOrdinal = live;
+        tombstones = 0;
+        terms.values().removeIf(postings -> postings.remap(remap) == 0);
+    }
+
+    private static final class PostingList {
+        int[] ordinals = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept] = ordinal;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    /**
+     * A window of ranked story ids together with the total number of matching stories.
+     */
+    @Value
+    public static class Hits {
+        List<UUID> storyIds;
+        int total;
+    }
+}
@@ -0,0 +1,116 @@
+package com.nahid.main.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Bounded, time-decayed ranking of the most viewed stories.
+ *
+ * <p>Views decay exponentially with the configured half-life. Instead of decaying every score
+ * as time passes, each new view is weighted up by {@code 2^(age of the clock / half-life)}
+ * ("forward decay"): the ratio between two scores is the same as with decayed scores, so the
+ * ranking is too, and scores only ever grow. When the weights get large the whole table is
+ * scaled down by a power of two, which is exact and keeps the order.</p>
+ *
+ * <p>At most {@code capacity} stories are tracked, using the Space-Saving algorithm: a story
+ * that is not tracked replaces the lowest one and inherits its score, which may over-rank
+ * newcomers slightly but never misses a story whose share of the recent views is above
+ * {@code 1 / capacity}. Updates come in batches from the view counter, so a single lock is
+ * enough.</p>
+ */
+@Component
+public class TrendingStories {
+
+    /** Largest weight exponent before the scores are scaled down. */
+    private static final int MAX_EXPONENT = 64;
+
+    private final int capacity;
+    private final double halfLifeMillis;
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> byScore = new TreeSet<>(Comparator.comparingDouble((Entry entry) -> entry.score)
+            .thenComparing(entry -> entry.storyId));
+    private long epochMillis = System.currentTimeMillis();
+
+    public TrendingStories(@Value("${trending.capacity}") int capacity, @Value("${trending.half-life}") Duration halfLife) {
+        this.capacity = capacity;
+        this.halfLifeMillis = halfLife.toMillis();
+    }
+
+    /** Adds {@code views} seen at {@code nowMillis} to the story's score. */
+    public synchronized void add(UUID storyId, long views, long nowMillis) {
+        double exponent = (nowMillis - epochMillis) / halfLifeMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale((int) exponent);
+            exponent -= (int) exponent;
+        }
+        double weight = views * Math.pow(2, exponent);
+
+        Entry entry = entries.get(storyId);
+        if (entry != null) {
+            byScore.remove(entry);
+            entry.score += weight;
+        } else if (entries.size() < capacity) {
+            entry = new Entry(storyId, weight);
+            entries.put(storyId, entry);
+        } else {
+            Entry lowest = byScore.pollFirst();
+            entries.remove(lowest.storyId);
+            entry = new Entry(storyId, lowest.score + weight);
+            entries.put(storyId, entry);
+        }
+        byScore.add(entry);
+    }
+
+    public synchronized void remove(UUID storyId) {
+        Entry entry = entries.remove(storyId);
+        if (entry != null) {
+            byScore.remove(entry);
+        }
+    }
+
+    /** Ids of the {@code limit} highest ranked stories, most viewed first. */
+    public synchronized List<UUID> top(int limit) {
+        List<UUID> storyIds = new ArrayList<>(Math.min(limit, entries.size()));
+        Iterator<Entry> iterator = byScore.descendingIterator();
+        while (iterator.hasNext() && storyIds.size() < limit) {
+            storyIds.add(iterator.next().storyId);
+        }
+        return storyIds;
+    }
+
+    /** Number of stories currently tracked. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Moves the epoch forward by {@code halvings} half-lives, dividing every score by {@code 2^halvings}. */
+    private void rescale(int halvings) {
+        List<Entry> all = new ArrayList<>(byScore);
+        byScore.clear();
+        for (Entry entry : all) {
+            entry.score = Math.scalb(entry.score, -halvings);
+            byScore.add(entry);
+        }
+        epochMillis += (long) (halvings * halfLifeMillis);
+    }
+
+    private static final class Entry {
+        final UUID storyId;
+        double score;
+
+        Entry(UUID storyId, double score) {
+            this.storyId = storyId;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.nahid.main.metrics;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nahid.main.cache.StoryFeedCache;
+import com.nahid.main.cache.StoryFragmentCache;
+import com.nahid.main.index.StoryFacetIndex;
+import com.nahid.main.index.StoryForSuggestionIndex;
+import com.nahid.main.index.StorySearchIndex;
+import com.nahid.main.index.TrendingStories;
+import com.nahid.main.security.BoundedPasswordEncoder;
+import com.nahid.main.service.CustomUserDetailsService;
+import com.nahid.main.service.StoryFeedBroadcaster;
+import com.nahid.main.service.StorySubmissionQueue;
+import com.nahid.main.service.StoryViewCounter;
+import com.nahid.main.service.UserService;
+import com.nahid.main.util.HashUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Exposes the counters the application components already keep (cache statistics, the
+ * BCrypt pool, HMAC hashing, the username filter, the search, suggestion and facet indexes,
+ * view counting, queued story submissions, live feed connections) as meters.
+ *
+ * <p>All meters read the components' own counters when scraped, so nothing is added to the
+ * request path. Cache meters use the names of Micrometer's cache binders ({@code cache.gets}
+ * with a {@code result} tag, {@code cache.evictions}, {@code cache.loads}), so standard
+ * dashboards work for them.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationMetrics implements MeterBinder {
+
+    private final CustomUserDetailsService customUserDetailsService;
+    private final StoryFeedCache storyFeedCache;
+    private final StoryFragmentCache storyFragmentCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final HashUtil hashUtil;
+    private final UserService userService;
+    private final StorySearchIndex storySearchIndex;
+    private final StoryForSuggestionIndex storyForSuggestionIndex;
+    private final StoryFacetIndex storyFacetIndex;
+    private final StoryViewCounter storyViewCounter;
+    private final TrendingStories trendingStories;
+    private final StorySubmissionQueue storySubmissionQueue;
+    private final StoryFeedBroadcaster storyFeedBroadcaster;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "users", customUserDetailsService, CustomUserDetailsService::getCacheStats);
+        bindCache(registry, "feed", storyFeedCache, StoryFeedCache::getCacheStats);
+        bindCache(registry, "fragments", storyFragmentCache, StoryFragmentCache::getCacheStats);
+        Gauge.builder("cache.weighted.size", storyFragmentCache, StoryFragmentCache::getWeightedSize)
+                .tag("cache", "fragments")
+                .baseUnit("bytes")
+                .register(registry);
+
+        FunctionTimer.builder("password.hashing", passwordEncoder,
+                        BoundedPasswordEncoder::getCompletedCount, BoundedPasswordEncoder::getTotalLatencyNanos,
+                        TimeUnit.NANOSECONDS)
+                .description("BCrypt hashes, queueing included")
+                .register(registry);
+        FunctionCounter.builder("password.hashing.rejected", passwordEncoder, BoundedPasswordEncoder::getRejectedCount)
+                .register(registry);
+        Gauge.builder("password.hashing.queued", passwordEncoder, BoundedPasswordEncoder::getQueueDepth)
+                .register(registry);
+        Gauge.builder("password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                .register(registry);
+
+        FunctionTimer.builder("hmac.hashing", hashUtil,
+                        HashUtil::getComputedCount, HashUtil::getComputeNanos, TimeUnit.NANOSECONDS)
+                .description("HMAC-SHA256 computations of usernames")
+                .register(registry);
+        FunctionCounter.builder("hmac.memo.hits", hashUtil, HashUtil::getMemoHitCount)
+                .register(registry);
+
+        FunctionCounter.builder("users.username.checks", userService, UserService::getFilteredCheckCount)
+                .tag("result", "filtered")
+                .description("Username checks answered from the username filter")
+                .register(registry);
+        FunctionCounter.builder("users.username.checks", userService, UserService::getProbedCheckCount)
+                .tag("result", "probed")
+                .description("Username checks that looked up the username index")
+                .register(registry);
+        FunctionCounter.builder("users.username.false.positives", userService, UserService::getFalsePositiveCount)
+                .register(registry);
+        Gauge.builder("users.username.filter.memory", userService, UserService::getUsernameFilterMemory)
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("stories.search.index.size", storySearchIndex, StorySearchIndex::size)
+                .register(registry);
+
+        Gauge.builder("stories.suggest.names", storyForSuggestionIndex, StoryForSuggestionIndex::size)
+                .register(registry);
+        Gauge.builder("stories.suggest.nodes", storyForSuggestionIndex, StoryForSuggestionIndex::getNodeCount)
+                .register(registry);
+        Gauge.builder("stories.suggest.memory", storyForSuggestionIndex, StoryForSuggestionIndex::estimateMemory)
+                .description("Approximate heap taken by the name suggestion trie")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("stories.facets.memory", storyFacetIndex, StoryFacetIndex::estimateMemory)
+                .description("Approximate heap taken by the facet bitmaps")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("stories.views.pending", storyViewCounter, StoryViewCounter::getPendingCount)
+                .description("Stories with views not yet written to the database")
+                .register(registry);
+        FunctionCounter.builder("stories.views.flushed", storyViewCounter, StoryViewCounter::getFlushedCount)
+                .description("Story view counts written by batched updates")
+                .register(registry);
+        Gauge.builder("stories.trending.size", trendingStories, TrendingStories::size)
+                .register(registry);
+
+        Gauge.builder("stories.submissions.queued", storySubmissionQueue, StorySubmissionQueue::getQueuedCount)
+                .description("Stories accepted and waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("stories.submissions.written", storySubmissionQueue, StorySubmissionQueue::getWrittenCount)
+                .register(registry);
+        FunctionCounter.builder("stories.submissions.batches", storySubmissionQueue, StorySubmissionQueue::getBatchCount)
+                .description("Transactions committed by the writer")
+                .register(registry);
+        FunctionCounter.builder("stories.submissions.rejected", storySubmissionQueue, StorySubmissionQueue::getRejectedCount)
+                .description("Stories refused because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("stories.submissions.failed", storySubmissionQueue, StorySubmissionQueue::getFailedCount)
+                .register(registry);
+
+        Gauge.builder("stories.live.clients", storyFeedBroadcaster, StoryFeedBroadcaster::getClientCount)
+                .description("Open live feed connections")
+                .register(registry);
+        FunctionCounter.builder("stories.live.broadcasts", storyFeedBroadcaster, StoryFeedBroadcaster::getBroadcastCount)
+                .description("Story cards, edits and deletions sent to every live feed client")
+                .register(registry);
+        FunctionCounter.builder("stories.live.evicted", storyFeedBroadcaster, StoryFeedBroadcaster::getEvictedCount)
+                .description("Live feed clients disconnected for falling behind")
+                .register(registry);
+        FunctionCounter.builder("stories.live.dropped", storyFeedBroadcaster, StoryFeedBroadcaster::getDroppedCount)
+                .description("Story changes not broadcast because the broadcaster fell behind")
+                .register(registry);
+    }
+
+    /**
+     * Meters only hold a weak reference to their state object, so the long-lived component is
+     * passed rather than a method reference to it, which would be collected right away.
+     */
+    private static <T> void bindCache(MeterRegistry registry, String cache, T owner, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).hitCount())
+                .tags("cache", cache, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).missCount())
+                .tags("cache", cache, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", owner, o -> stats.apply(o).evictionCount())
+                .tag("cache", cache)
+                .register(registry);
+        FunctionTimer.builder("cache.loads", owner, o -> stats.apply(o).loadCount(), o -> stats.apply(o).totalLoadTime(),
+                        TimeUnit.NANOSECONDS)
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
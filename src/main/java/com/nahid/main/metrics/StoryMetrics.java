@@ -0,0 +1,109 @@
+package com.nahid.main.metrics;
+
+import com.nahid.main.model.Story;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and volume of the story read paths in {@code StoryService}.
+ *
+ * <p>Timers publish percentile histograms, so p99 latency can be computed per path in
+ * Prometheus. Row counts show how many summaries each listing returned, and
+ * {@code stories.description.bytes} how much description text, in UTF-8 bytes, was loaded by
+ * full reads (story page, edit form, export), the only paths that read and inflate the
+ * deflate-compressed description column (see {@code DeflatedTextConverter}).</p>
+ */
+@Component
+public class StoryMetrics {
+
+    private final Timer feedFromCache;
+    private final Timer feedFromDatabase;
+    private final Timer feedFromFacets;
+    private final Timer search;
+    private final Timer dashboard;
+    private final DistributionSummary feedRows;
+    private final DistributionSummary searchRows;
+    private final DistributionSummary dashboardRows;
+    private final DistributionSummary descriptionBytes;
+
+    public StoryMetrics(MeterRegistry registry) {
+        this.feedFromCache = timer(registry, "stories.feed", "source", "cache");
+        this.feedFromDatabase = timer(registry, "stories.feed", "source", "database");
+        this.feedFromFacets = timer(registry, "stories.feed", "source", "facets");
+        this.search = timer(registry, "stories.search");
+        this.dashboard = timer(registry, "stories.dashboard");
+        this.feedRows = rows(registry, "feed");
+        this.searchRows = rows(registry, "search");
+        this.dashboardRows = rows(registry, "dashboard");
+        this.descriptionBytes = DistributionSummary.builder("stories.description.bytes")
+                .description("Description bytes (UTF-8) loaded per full story read")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    public void recordFeed(long startNanos, boolean cached, int rows) {
+        (cached ? feedFromCache : feedFromDatabase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        feedRows.record(rows);
+    }
+
+    /** A feed page filtered by facets: ids from the bitmaps, summaries from the database. */
+    public void recordFilteredFeed(long startNanos, int rows) {
+        feedFromFacets.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        feedRows.record(rows);
+    }
+
+    public void recordSearch(long startNanos, int rows) {
+        search.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        searchRows.record(rows);
+    }
+
+    public void recordDashboard(long startNanos, int rows) {
+        dashboard.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        dashboardRows.record(rows);
+    }
+
+    public void recordDescription(Story story) {
+        if (story != null && story.getDescription() != null) {
+            descriptionBytes.record(utf8Length(story.getDescription()));
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /** Encoded size of {@code text} in UTF-8, counted without encoding it. */
+    private static long utf8Length(String text) {
+        long bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // One code point in two chars, four bytes
+                bytes += 2;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired: encoded as a one-byte '?', like String.getBytes does
+            } else if (c >= 0x800) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    private static DistributionSummary rows(MeterRegistry registry, String query) {
+        return DistributionSummary.builder("stories.rows")
+                .description("Story summaries returned per listing")
+                .tag("query", query)
+                .register(registry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.nahid.main.model;
+
+import com.nahid.main.util.TextCompression;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores text in a binary column compressed with {@link TextCompression}.
+ */
+@Converter
+public class DeflatedTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return TextCompression.compress(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return TextCompression.decompress(data);
+    }
+}
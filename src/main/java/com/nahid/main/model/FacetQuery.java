@@ -0,0 +1,45 @@
+package com.nahid.main.model;
+
+import lombok.Value;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * The facet choices of a home or search page, and the links that change one of them.
+ *
+ * <p>Links keep the search query and the other facet's choice and drop whatever is unset, so
+ * they stay short and shareable; the page number starts over whenever a facet changes.</p>
+ */
+@Value
+public class FacetQuery {
+
+    String path;
+    String searchQuery;
+    Boolean positive;
+    String storyFor;
+
+    public static FacetQuery of(String path, String searchQuery, Boolean positive, String storyFor) {
+        return new FacetQuery(path, searchQuery, positive,
+                storyFor == null || storyFor.isBlank() ? null : storyFor.trim());
+    }
+
+    public String withPositive(Boolean positive) {
+        return link(positive, storyFor, null);
+    }
+
+    public String withStoryFor(String storyFor) {
+        return link(positive, storyFor, null);
+    }
+
+    public String page(int page) {
+        return link(positive, storyFor, page);
+    }
+
+    private String link(Boolean positive, String storyFor, Integer page) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath(path);
+        if (page != null) builder.queryParam("page", page);
+        if (searchQuery != null) builder.queryParam("searchQuery", searchQuery);
+        if (positive != null) builder.queryParam("positive", positive);
+        if (storyFor != null) builder.queryParam("storyFor", storyFor);
+        return builder.encode().toUriString();
+    }
+}
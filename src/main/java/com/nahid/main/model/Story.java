@@ -22,9 +22,28 @@ public class Story {
     private String storyFor;
     private String storyBy;
     private String title;
-    @Lob
+    /**
+     * Stored deflate-compressed in a binary column, see {@link DeflatedTextConverter}. Fetched and
+     * decompressed eagerly with the entity, because every reader of a whole {@code Story} (story page,
+     * edit form, export, index rebuild) uses it. Listings read {@link StorySummary} projections
+     * without it, and the story page only loads the entity when its rendered fragment is not cached.
+     */
+    @Convert(converter = DeflatedTextConverter.class)
     private String description;
+    /**
+     * First {@value com.nahid.main.service.StoryService#EXCERPT_LENGTH} characters of the description,
+     * computed when the story is saved so that list views never read the full body.
+     */
+    @Column(length = 203)
+    private String excerpt;
     private Boolean isPositive;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    /** Optimistic lock, incremented on every update. Together with the id it forms the story page ETag. */
+    @Version
+    private Long version;
+    /** Written only by {@code StoryViewCounter}'s batched increments, never by entity updates. */
+    @Column(insertable = false, updatable = false)
+    private Long viewCount;
 
 }
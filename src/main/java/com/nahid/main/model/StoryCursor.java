@@ -0,0 +1,50 @@
+package com.nahid.main.model;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Seek position in a story listing ordered by {@code (createdAt DESC, storyId DESC)}.
+ *
+ * <p>Cursors are handed to the browser as opaque URL-safe strings. Listings use them
+ * to continue right after (or right before) a known story instead of skipping rows
+ * with an OFFSET, so every page costs the same no matter how deep it is.</p>
+ */
+@Value
+public class StoryCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime createdAt;
+    UUID storyId;
+
+    public static StoryCursor of(StorySummary story) {
+        return new StoryCursor(story.getCreatedAt(), story.getStoryId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + storyId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}.
+     *
+     * @return the cursor, or {@code null} if the value is blank or malformed
+     */
+    public static StoryCursor decode(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new StoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
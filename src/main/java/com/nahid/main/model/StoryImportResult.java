@@ -0,0 +1,24 @@
+package com.nahid.main.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were stored, how many were rejected and why.
+ * Only the first {@code errors} are listed; {@code failed} counts all of them.
+ */
+@Value
+public class StoryImportResult {
+
+    long imported;
+    long failed;
+    List<RowError> errors;
+
+    @Value
+    public static class RowError {
+        /** 1-based position of the row in the upload (header excluded). */
+        long row;
+        String message;
+    }
+}
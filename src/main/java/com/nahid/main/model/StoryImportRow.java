@@ -0,0 +1,25 @@
+package com.nahid.main.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One story of a bulk import, as sent by the client. {@code storyBy} is the plain
+ * username of the author; it is hashed before the story is stored.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class StoryImportRow {
+
+    private String storyFor;
+    private String storyBy;
+    private String title;
+    private String description;
+    private Boolean isPositive;
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,29 @@
+package com.nahid.main.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated story listing.
+ *
+ * <p>Unlike a {@link org.springframework.data.domain.Page} it carries no total count;
+ * it only knows whether a newer or an older page exists and how to reach it.</p>
+ */
+@Value
+public class StorySlice {
+
+    List<StorySummary> content;
+    /** Cursor of the next (older) page, or {@code null} on the last page. */
+    String nextCursor;
+    /** Cursor of the previous (newer) page, or {@code null} on the first page. */
+    String previousCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.nahid.main.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Version information of a story, enough to answer a conditional GET
+ * for its page without loading the story itself.
+ */
+@Value
+public class StoryStamp {
+
+    UUID storyId;
+    Long version;
+    LocalDateTime updatedAt;
+
+    /** Strong ETag value: changes whenever the story is updated. */
+    public String getETag() {
+        return "\"" + storyId + "-" + version + "\"";
+    }
+
+    /** Last modification as epoch milliseconds, or -1 if unknown. */
+    public long getLastModified() {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,26 @@
+package com.nahid.main.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a {@link Story} used by the feed, search and dashboard listings.
+ *
+ * <p>It carries the stored excerpt instead of the full description, so listing queries
+ * select only these columns and never read or inflate the deflate-compressed description
+ * column behind {@link DeflatedTextConverter}.</p>
+ */
+@Value
+public class StorySummary {
+
+    UUID storyId;
+    String storyFor;
+    String title;
+    String excerpt;
+    Boolean isPositive;
+    LocalDateTime createdAt;
+    Long version;
+
+}
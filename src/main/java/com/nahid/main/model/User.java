@@ -1,9 +1,11 @@
 package com.nahid.main.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,11 +16,13 @@ import java.util.UUID;
 @AllArgsConstructor
 @Data
 @Entity
-@Table(name = "user_table")
+@Table(name = "user_table",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_table_username", columnNames = "username"))
 public class User {
     @Id
     @GeneratedValue
     private UUID userId;
+    @Column(nullable = false)
     private String username;
     private String password;
     private String role;
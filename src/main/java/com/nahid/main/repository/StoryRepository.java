@@ -1,29 +1,94 @@
 package com.nahid.main.repository;
 
 import com.nahid.main.model.Story;
+import com.nahid.main.model.StoryStamp;
+import com.nahid.main.model.StorySummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface StoryRepository extends JpaRepository<Story, UUID> {
 
-    List<Story> findStoriesByStoryForContainingIgnoreCase(String storyFor);
-
-    Page<Story> findStoriesByStoryForContainingIgnoreCase(String storyFor, Pageable pageable);
-
     List<Story> findStoriesByStoryBy(String storyBy);
 
     Page<Story> findStoriesByStoryBy(String storyBy, Pageable pageable);
 
     Story findStoryByStoryId(UUID storyId);
-    
-    // Methods with sorting by createdAt DESC (latest to oldest)
-    Page<Story> findAllByOrderByCreatedAtDesc(Pageable pageable);
-    
-    Page<Story> findStoriesByStoryForContainingIgnoreCaseOrderByCreatedAtDesc(String storyFor, Pageable pageable);
-    
-    Page<Story> findStoriesByStoryByOrderByCreatedAtDesc(String storyBy, Pageable pageable);
+
+    // Version lookup for conditional GETs of the story page, without loading the description
+    @Query("select new com.nahid.main.model.StoryStamp(s.storyId, s.version, s.updatedAt) from Story s where s.storyId = :storyId")
+    StoryStamp findStoryStampByStoryId(UUID storyId);
+
+    // Edit and delete are single statements that only match the author's own story (or any story for an admin),
+    // so ownership is checked by the database without loading the story first. They return the affected rows:
+    // 0 means the story does not exist or belongs to someone else. The update bumps the @Version by hand
+    // because bulk statements bypass Hibernate's optimistic locking.
+    @Transactional
+    @Modifying
+    @Query("update Story s set s.storyFor = :storyFor, s.title = :title, s.description = :description, s.excerpt = :excerpt, "
+            + "s.isPositive = :isPositive, s.updatedAt = :updatedAt, s.version = s.version + 1 "
+            + "where s.storyId = :storyId and s.storyBy = :storyBy")
+    int updateStoryContent(UUID storyId, String storyBy, String storyFor, String title, String description, String excerpt,
+                           Boolean isPositive, LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Story s where s.storyId = :storyId and (:admin = true or s.storyBy = :storyBy)")
+    int deleteStoryByStoryId(UUID storyId, String storyBy, boolean admin);
+
+    // Listing methods use keyset (seek) pagination ordered by (createdAt DESC, storyId DESC).
+    // They return StorySummary projections, so the description column is never selected.
+    // "After" continues with older stories than the cursor, "Before" walks back to newer ones
+    // in ascending order; the service reverses that slice before rendering.
+    String SUMMARY = "select new com.nahid.main.model.StorySummary(s.storyId, s.storyFor, s.title, s.excerpt, s.isPositive, s.createdAt, s.version) from Story s ";
+    // The leading range on createdAt lets the (created_at, story_id) indexes seek to the cursor.
+    String AFTER = "s.createdAt <= :createdAt and (s.createdAt < :createdAt or s.storyId < :storyId) ";
+    String BEFORE = "s.createdAt >= :createdAt and (s.createdAt > :createdAt or s.storyId > :storyId) ";
+    String NEWEST_FIRST = "order by s.createdAt desc, s.storyId desc";
+    String OLDEST_FIRST = "order by s.createdAt asc, s.storyId asc";
+
+    Slice<StorySummary> findStorySummariesByOrderByCreatedAtDescStoryIdDesc(Pageable pageable);
+
+    @Query(SUMMARY + "where " + AFTER + NEWEST_FIRST)
+    Slice<StorySummary> findStorySummariesAfter(LocalDateTime createdAt, UUID storyId, Pageable pageable);
+
+    @Query(SUMMARY + "where " + BEFORE + OLDEST_FIRST)
+    Slice<StorySummary> findStorySummariesBefore(LocalDateTime createdAt, UUID storyId, Pageable pageable);
+
+    Slice<StorySummary> findStorySummariesByStoryByOrderByCreatedAtDescStoryIdDesc(String storyBy, Pageable pageable);
+
+    @Query(SUMMARY + "where s.storyBy = :storyBy and " + AFTER + NEWEST_FIRST)
+    Slice<StorySummary> findStorySummariesByStoryByAfter(String storyBy, LocalDateTime createdAt, UUID storyId, Pageable pageable);
+
+    @Query(SUMMARY + "where s.storyBy = :storyBy and " + BEFORE + OLDEST_FIRST)
+    Slice<StorySummary> findStorySummariesByStoryByBefore(String storyBy, LocalDateTime createdAt, UUID storyId, Pageable pageable);
+
+    // Hydrates the ranked ids returned by the search index in a single query
+    List<StorySummary> findStorySummariesByStoryIdIn(Collection<UUID> storyIds);
+
+    // Forward-only scan of every story, oldest first, used to rebuild the in-memory indexes.
+    // Must be consumed inside a transaction and closed afterwards. The only intentional full scan.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Story> streamAllByOrderByCreatedAtAscStoryIdAsc();
+
+    // Forward-only, read-only scan for the export API, oldest first within [from, to).
+    // storyFor is optional; the created_at range keeps it on the (created_at, story_id) index.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select s from Story s where s.createdAt >= :from and s.createdAt < :to "
+            + "and (:storyFor is null or s.storyFor = :storyFor) order by s.createdAt asc, s.storyId asc")
+    Stream<Story> streamForExport(LocalDateTime from, LocalDateTime to, String storyFor);
 }
@@ -1,10 +1,23 @@
 package com.nahid.main.repository;
 
 import com.nahid.main.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     User findByUsername(String username);
+
+    // Probe of the unique username index, without loading the user
+    boolean existsByUsername(String username);
+
+    // Every username, to build the username filter. Must be consumed inside a transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username from User u")
+    Stream<String> streamAllUsernames();
 }
@@ -0,0 +1,122 @@
+package com.nahid.main.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a CPU-heavy {@link PasswordEncoder} (BCrypt) on a small dedicated pool with a capped queue.
+ *
+ * <p>Only {@code threads} hashes run at once and at most {@code queueCapacity} wait for a worker.
+ * Anything beyond that is refused at once with a {@link PasswordHashingBusyException}, so a burst
+ * of logins or signups cannot park every Tomcat thread behind BCrypt and starve anonymous readers.
+ * A hash that does not finish within {@code timeout} is abandoned the same way.</p>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /** Number of hashes waiting for a worker. */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /** Number of hashes running right now. */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /** Number of hashes refused because the queue was full or the wait timed out. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Total time from submission to result, queueing included, of all completed hashes. */
+    public long getTotalLatencyNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(e);
+        }
+
+        try {
+            T result = future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            completed.increment();
+            totalNanos.add(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingBusyException(e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
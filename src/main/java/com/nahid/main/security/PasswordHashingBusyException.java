@@ -0,0 +1,19 @@
+package com.nahid.main.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when a password cannot be hashed or checked right now because the
+ * password hashing pool is saturated. The client should retry shortly.
+ *
+ * <p>It is an {@link AuthenticationServiceException}, so a refused login reaches the
+ * form login failure handler instead of surfacing as a server error.</p>
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public static final String MESSAGE = "The server is busy, please try again in a moment";
+
+    public PasswordHashingBusyException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
@@ -1,34 +1,71 @@
 package com.nahid.main.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.nahid.main.model.User;
 import com.nahid.main.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final Cache<String, UserDetails> userCache;
 
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${user-cache.maximum-size}") long maximumSize,
+                                    @Value("${user-cache.expire-after-write}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Loads a user for authentication, from the cache when possible.
+     *
+     * <p>Only found users are cached. Every caller gets its own copy of the cached
+     * {@link UserDetails}, because Spring Security erases the password of the principal
+     * it returns after a successful login.</p>
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = userCache.get(username, this::loadFromDatabase);
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    /**
+     * Drops the cached details of a user, so that the next login reads the account again.
+     * Must be called whenever a user is registered or changed.
+     */
+    public void evictUser(String username) {
+        userCache.invalidate(username);
+    }
+
+    /**
+     * Hit, miss and eviction counters of the authentication cache.
+     */
+    public CacheStats getCacheStats() {
+        return userCache.stats();
+    }
+
+    private UserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username);
         if(user == null){
             throw new UsernameNotFoundException(username);
         }
 
-        Set<GrantedAuthority> grantedAuthorities = new HashSet<>();
-        grantedAuthorities.add(new SimpleGrantedAuthority(user.getRole()));
-
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
-                grantedAuthorities);
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password(user.getPassword())
+                .authorities(user.getRole())
+                .build();
     }
 }
@@ -0,0 +1,275 @@
+package com.nahid.main.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nahid.main.cache.StoryFragmentCache;
+import com.nahid.main.model.StorySummary;
+import com.nahid.main.repository.StoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes saved, edited and deleted stories to every open home page over Server-Sent Events.
+ *
+ * <p>{@link StoryService} publishes a {@link StoryFeedEvent} after each change. A single
+ * {@code live-feed} thread takes what has piled up, reads the summaries once, renders each card
+ * once through the {@link StoryFragmentCache} and serializes each SSE frame once; fanning out is
+ * then only an {@code offer} of the shared frame to each client's bounded buffer. Every client has
+ * a virtual thread that writes its buffer to the connection, so a slow network stalls only that
+ * client, and an idle client holds a connection and a parked virtual thread but no platform thread.</p>
+ *
+ * <p>A client whose buffer ({@code live-feed.client-buffer} frames) is full is too slow to keep
+ * up and is disconnected rather than buffered for without bound; the browser's EventSource
+ * reconnects by itself. A comment frame every {@code live-feed.heartbeat} keeps idle connections
+ * from being closed by proxies and finds clients that went away. A burst of saves, like an import,
+ * is cut down to its last {@value #MAX_SAVED_CARDS} stories: the live feed shows what is new, the
+ * pages remain the complete list.</p>
+ */
+@Slf4j
+@Component
+public class StoryFeedBroadcaster {
+
+    private static final int MAX_SAVED_CARDS = 8;
+    private static final int MAX_PENDING_EVENTS = 1024;
+
+    private final StoryRepository storyRepository;
+    private final StoryFragmentCache storyFragmentCache;
+    private final ObjectMapper objectMapper;
+    private final int clientBuffer;
+    private final Duration timeout;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<StoryFeedEvent> events = new LinkedBlockingQueue<>(MAX_PENDING_EVENTS);
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread broadcaster;
+    private volatile boolean closed;
+
+    public StoryFeedBroadcaster(StoryRepository storyRepository, StoryFragmentCache storyFragmentCache,
+                                ObjectMapper objectMapper,
+                                @Value("${live-feed.client-buffer}") int clientBuffer,
+                                @Value("${live-feed.timeout}") Duration timeout) {
+        this.storyRepository = storyRepository;
+        this.storyFragmentCache = storyFragmentCache;
+        this.objectMapper = objectMapper;
+        this.clientBuffer = clientBuffer;
+        this.timeout = timeout;
+        this.broadcaster = Thread.ofPlatform().name("live-feed").daemon().start(this::broadcast);
+    }
+
+    /**
+     * Opens a live feed connection. It is closed after {@code live-feed.timeout}, when the client
+     * falls behind or goes away, and at shutdown.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        if (closed) {
+            emitter.complete();
+            return emitter;
+        }
+        Client client = new Client(emitter, new ArrayBlockingQueue<>(clientBuffer));
+        client.writer = Thread.ofVirtual().name("live-feed-client").start(() -> write(client));
+        emitter.onCompletion(() -> disconnect(client));
+        emitter.onTimeout(() -> disconnect(client));
+        emitter.onError(e -> disconnect(client));
+        clients.add(client);
+        return emitter;
+    }
+
+    @EventListener
+    public void onStoryFeedEvent(StoryFeedEvent event) {
+        if (clients.isEmpty()) return;
+        if (!events.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${live-feed.heartbeat}", initialDelayString = "${live-feed.heartbeat}")
+    public void heartbeat() {
+        if (clients.isEmpty()) return;
+        fanOut(SseEmitter.event().comment("heartbeat").build());
+    }
+
+    /** Open live feed connections. */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /** Frames sent to all clients: story cards, edits and deletions. */
+    public long getBroadcastCount() {
+        return broadcasts.sum();
+    }
+
+    /** Clients disconnected because their buffer was full. */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /** Changes not broadcast because the broadcaster had fallen {@value #MAX_PENDING_EVENTS} events behind. */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /** Stops broadcasting and closes every connection. */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        broadcaster.interrupt();
+        for (Client client : clients) {
+            disconnect(client);
+        }
+    }
+
+    private void broadcast() {
+        List<StoryFeedEvent> batch = new ArrayList<>();
+        while (!closed) {
+            try {
+                batch.add(events.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            events.drainTo(batch);
+            try {
+                for (Set<DataWithMediaType> frame : render(batch)) {
+                    fanOut(frame);
+                    broadcasts.increment();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not broadcast {} story changes", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Merges the changes into one frame per story: saves, cut to the last few, oldest first so the
+     * newest ends up on top; then edits and deletions. An edit of a story saved in the same batch
+     * is already in its card, and a deleted story is not shown at all.
+     */
+    private List<Set<DataWithMediaType>> render(List<StoryFeedEvent> batch) {
+        Set<UUID> saved = new LinkedHashSet<>();
+        Set<UUID> updated = new LinkedHashSet<>();
+        Set<UUID> deleted = new LinkedHashSet<>();
+        for (StoryFeedEvent event : batch) {
+            for (UUID storyId : event.getStoryIds()) {
+                switch (event.getType()) {
+                    case SAVED -> saved.add(storyId);
+                    case UPDATED -> {
+                        if (!saved.contains(storyId)) updated.add(storyId);
+                    }
+                    case DELETED -> {
+                        saved.remove(storyId);
+                        updated.remove(storyId);
+                        deleted.add(storyId);
+                    }
+                }
+            }
+        }
+        for (Iterator<UUID> it = saved.iterator(); saved.size() > MAX_SAVED_CARDS; ) {
+            it.next();
+            it.remove();
+        }
+
+        List<Set<DataWithMediaType>> frames = new ArrayList<>();
+        Set<UUID> shown = new LinkedHashSet<>(saved);
+        shown.addAll(updated);
+        if (!shown.isEmpty()) {
+            List<StorySummary> stories = new ArrayList<>(storyRepository.findStorySummariesByStoryIdIn(shown));
+            stories.sort(Comparator.comparing(StorySummary::getCreatedAt).thenComparing(StorySummary::getStoryId));
+            for (StorySummary story : stories) {
+                String type = saved.contains(story.getStoryId()) ? "story-saved" : "story-updated";
+                frames.add(frame(type, Map.of("storyId", story.getStoryId(),
+                        "createdAt", story.getCreatedAt().toString(), "html", card(story))));
+            }
+        }
+        for (UUID storyId : deleted) {
+            frames.add(frame("story-deleted", Map.of("storyId", storyId)));
+        }
+        return frames;
+    }
+
+    /** The card as home-page.html lays it out, without the admin's delete form, which is per user. */
+    private String card(StorySummary story) {
+        return "<div class=\"top-section\">" + storyFragmentCache.render("card-top", story) + "</div>"
+                + storyFragmentCache.render("card-body", story);
+    }
+
+    private Set<DataWithMediaType> frame(String name, Map<String, Object> data) {
+        try {
+            return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(data)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void fanOut(Set<DataWithMediaType> frame) {
+        for (Client client : clients) {
+            if (!client.buffer.offer(frame)) {
+                evicted.increment();
+                log.debug("Disconnecting a live feed client {} frames behind", clientBuffer);
+                disconnect(client);
+            }
+        }
+    }
+
+    /**
+     * Forgets the client and stops its writer, which completes the response once it is no longer
+     * blocked in a write; this thread never waits for the client's connection.
+     */
+    private void disconnect(Client client) {
+        clients.remove(client);
+        client.writer.interrupt();
+    }
+
+    private void write(Client client) {
+        try {
+            while (true) {
+                client.emitter.send(client.buffer.take());
+            }
+        } catch (InterruptedException e) {
+            try {
+                client.emitter.complete();
+            } catch (RuntimeException alreadyClosed) {
+                // The connection was closed first
+            }
+        } catch (IOException | RuntimeException e) {
+            // The client went away; the container reports it through onError or onCompletion
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    /** A connection and the frames waiting to be written to it. Compared by identity. */
+    private static final class Client {
+        final SseEmitter emitter;
+        final BlockingQueue<Set<DataWithMediaType>> buffer;
+        Thread writer;
+
+        Client(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
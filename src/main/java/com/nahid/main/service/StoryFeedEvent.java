@@ -0,0 +1,33 @@
+package com.nahid.main.service;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by {@link StoryService} once stories were saved, edited or deleted, for the live feed.
+ *
+ * <p>Only ids are carried: a listener reads what it needs after the change is committed, so it
+ * never shows a story that was rolled back or an edit that was not written.</p>
+ */
+@Value
+public class StoryFeedEvent {
+
+    public enum Type { SAVED, UPDATED, DELETED }
+
+    Type type;
+    List<UUID> storyIds;
+
+    public static StoryFeedEvent saved(List<UUID> storyIds) {
+        return new StoryFeedEvent(Type.SAVED, storyIds);
+    }
+
+    public static StoryFeedEvent updated(UUID storyId) {
+        return new StoryFeedEvent(Type.UPDATED, List.of(storyId));
+    }
+
+    public static StoryFeedEvent deleted(UUID storyId) {
+        return new StoryFeedEvent(Type.DELETED, List.of(storyId));
+    }
+}
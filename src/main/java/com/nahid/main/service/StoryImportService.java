@@ -0,0 +1,230 @@
+package com.nahid.main.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nahid.main.model.Story;
+import com.nahid.main.model.StoryImportResult;
+import com.nahid.main.model.StoryImportRow;
+import com.nahid.main.util.CsvReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads large numbers of stories from a streamed JSON or CSV upload.
+ *
+ * <p>Rows are parsed one at a time, validated, and stored in chunks of {@code story-import.batch-size}
+ * through {@link StoryService#saveStories(List)}, one transaction per chunk. An invalid row is reported
+ * and skipped. When a chunk fails in the database, its rows are retried one by one so that only the
+ * offending rows are reported and the rest of the load carries on. Imported stories may be older
+ * than the ones already there, so the filtered listings are put back in creation order at the end.</p>
+ */
+@Service
+@Slf4j
+public class StoryImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final StoryService storyService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public StoryImportService(StoryService storyService, ObjectMapper objectMapper,
+                              @Value("${story-import.batch-size}") int batchSize) {
+        this.storyService = storyService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports stories from NDJSON or a JSON array.
+     */
+    public StoryImportResult importJson(InputStream body) throws IOException {
+        Importer importer = new Importer();
+        try (MappingIterator<StoryImportRow> rows = objectMapper.readerFor(StoryImportRow.class).readValues(body)) {
+            long rowNumber = 0;
+            while (true) {
+                rowNumber++;
+                try {
+                    if (!rows.hasNextValue()) break;
+                    importer.add(rowNumber, rows.nextValue());
+                } catch (JsonProcessingException e) {
+                    importer.reject(rowNumber, "Invalid JSON: " + e.getOriginalMessage());
+                    if (!(e instanceof JsonMappingException)) {
+                        // Broken syntax: the rest of the stream cannot be read reliably
+                        break;
+                    }
+                }
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Imports stories from CSV with a header row naming the {@link StoryImportRow} fields.
+     */
+    public StoryImportResult importCsv(InputStream body) throws IOException {
+        Importer importer = new Importer();
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024));
+        List<String> header = csv.next();
+        if (header == null) {
+            return importer.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+
+        long rowNumber = 0;
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            rowNumber++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+            try {
+                importer.add(rowNumber, new StoryImportRow(
+                        field(fields, columns, "storyFor"),
+                        field(fields, columns, "storyBy"),
+                        field(fields, columns, "title"),
+                        field(fields, columns, "description"),
+                        parseBoolean(field(fields, columns, "isPositive")),
+                        parseDateTime(field(fields, columns, "createdAt"))));
+            } catch (IllegalArgumentException e) {
+                importer.reject(rowNumber, e.getMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null || value.isBlank()) return null;
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("isPositive must be true or false");
+        };
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("createdAt must be an ISO date-time");
+        }
+    }
+
+    /**
+     * Collects valid rows into chunks and tracks the outcome of one import.
+     */
+    private class Importer {
+
+        private final List<Long> rowNumbers = new ArrayList<>(batchSize);
+        private final List<StoryImportRow> rows = new ArrayList<>(batchSize);
+        private final List<StoryImportResult.RowError> errors = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+        private long imported;
+        private long failed;
+
+        void add(long rowNumber, StoryImportRow row) {
+            String problem = validate(row);
+            if (problem != null) {
+                reject(rowNumber, problem);
+                return;
+            }
+            rowNumbers.add(rowNumber);
+            rows.add(row);
+            if (rows.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long rowNumber, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new StoryImportResult.RowError(rowNumber, message));
+            }
+        }
+
+        StoryImportResult finish() {
+            flush();
+            if (imported > 0) {
+                storyService.reorderFilteredListings();
+            }
+            long millis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            log.info("Imported {} stories ({} rejected) in {} ms ({} rows/s)", imported, failed, millis, imported * 1000 / millis);
+            return new StoryImportResult(imported, failed, List.copyOf(errors));
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) return;
+            try {
+                storyService.saveStories(toStories(rows));
+                imported += rows.size();
+            } catch (RuntimeException chunkFailure) {
+                for (int i = 0; i < rows.size(); i++) {
+                    try {
+                        storyService.saveStories(toStories(List.of(rows.get(i))));
+                        imported++;
+                    } catch (RuntimeException e) {
+                        reject(rowNumbers.get(i), "Could not be stored: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                    }
+                }
+            }
+            rows.clear();
+            rowNumbers.clear();
+        }
+
+        private List<Story> toStories(List<StoryImportRow> chunk) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Story> stories = new ArrayList<>(chunk.size());
+            for (StoryImportRow row : chunk) {
+                Story story = new Story();
+                story.setStoryFor(row.getStoryFor().trim());
+                story.setStoryBy(row.getStoryBy().trim());
+                story.setTitle(row.getTitle().trim());
+                story.setDescription(row.getDescription());
+                story.setIsPositive(row.getIsPositive());
+                story.setCreatedAt(row.getCreatedAt() != null ? row.getCreatedAt() : now);
+                stories.add(story);
+            }
+            return stories;
+        }
+    }
+
+    private static String validate(StoryImportRow row) {
+        if (row == null) return "Empty row";
+        if (isBlank(row.getStoryFor())) return "storyFor is required";
+        if (isBlank(row.getStoryBy())) return "storyBy is required";
+        if (isBlank(row.getTitle())) return "title is required";
+        if (isBlank(row.getDescription())) return "description is required";
+        if (row.getIsPositive() == null) return "isPositive is required";
+        if (row.getStoryFor().length() > MAX_TEXT_LENGTH) return "storyFor is longer than " + MAX_TEXT_LENGTH + " characters";
+        if (row.getTitle().length() > MAX_TEXT_LENGTH) return "title is longer than " + MAX_TEXT_LENGTH + " characters";
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
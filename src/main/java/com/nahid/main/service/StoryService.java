@@ -1,81 +1,228 @@
 package com.nahid.main.service;
 
+import com.nahid.main.cache.StoryFeedCache;
+import com.nahid.main.cache.StoryFragmentCache;
+import com.nahid.main.index.StoryFacetIndex;
+import com.nahid.main.index.StoryForSuggestionIndex;
+import com.nahid.main.index.StorySearchIndex;
+import com.nahid.main.index.TrendingStories;
+import com.nahid.main.metrics.StoryMetrics;
 import com.nahid.main.model.Story;
+import com.nahid.main.model.StoryCursor;
+import com.nahid.main.model.StorySlice;
+import com.nahid.main.model.StoryStamp;
+import com.nahid.main.model.StorySummary;
 import com.nahid.main.repository.StoryRepository;
 import com.nahid.main.util.HashUtil;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.encrypt.TextEncryptor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 
 public class StoryService {
 
+    /** Number of description characters kept in the stored excerpt. */
+    public static final int EXCERPT_LENGTH = 200;
+
     private final StoryRepository storyRepository;
     private final HashUtil hashUtil;
+    private final StorySearchIndex storySearchIndex;
+    private final StoryForSuggestionIndex storyForSuggestionIndex;
+    private final StoryFacetIndex storyFacetIndex;
+    private final StoryFeedCache storyFeedCache;
+    private final StoryFragmentCache storyFragmentCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final StoryMetrics storyMetrics;
+    private final TrendingStories trendingStories;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Retrieves a paginated list of all stories ordered by creation date (newest first).
+     * Retrieves one cursor page of all stories ordered by creation date (newest first).
+     * 
+     * <p>This method uses keyset pagination on {@code (createdAt, storyId)}: instead of
+     * skipping rows with an OFFSET and counting the table, it seeks directly to the
+     * stories after (or before) the given cursor, so page 1 and page 10,000 cost the same.
+     * Each summary carries the excerpt that was stored when the story was saved, so
+     * the full description column is never read for list views.</p>
      * 
-     * <p>This method fetches all stories from the database with pagination support
-     * and automatically truncates story descriptions to 200 characters for display
-     * in list views. The truncation ensures consistent UI presentation and
-     * improves page load performance.</p>
+     * <p>The first pages are served from the in-memory {@link StoryFeedCache} and only
+     * deeper pages reach the database.</p>
      *
-     * @param pageable pagination information including page number, size, and sorting
-     * @return a {@link Page} of {@link Story} objects with truncated descriptions,
+     * @param after  cursor of the last story on the current page to move to older stories, or {@code null}
+     * @param before cursor of the first story on the current page to move to newer stories, or {@code null}
+     * @param size   maximum number of stories on the page
+     * @return a {@link StorySlice} of {@link StorySummary} objects with its next and previous cursors,
      *         ordered by creation date in descending order
-     * @see #truncateDescription(String)
+     * @see StoryCursor
+     */
+    public StorySlice getStories(String after, String before, int size){
+        long start = System.nanoTime();
+        StorySlice cached = storyFeedCache.getSlice(StoryCursor.decode(after), StoryCursor.decode(before), size);
+        if (cached != null) {
+            storyMetrics.recordFeed(start, true, cached.getContent().size());
+            return cached;
+        }
+        StorySlice slice = scroll(after, before, size,
+                storyRepository::findStorySummariesByOrderByCreatedAtDescStoryIdDesc,
+                storyRepository::findStorySummariesAfter,
+                storyRepository::findStorySummariesBefore);
+        storyMetrics.recordFeed(start, false, slice.getContent().size());
+        return slice;
+    }
+
+    /**
+     * Retrieves one page of the stories with the selected facet values, newest first.
+     * 
+     * <p>The matching ids come from the compressed bitmaps of the in-memory
+     * {@link StoryFacetIndex}: a sentiment, a name, or the intersection of both. Only the ids
+     * of the requested page are hydrated from the database, in a single query, so plain page
+     * numbers cost the same at any depth. The total comes from the bitmap as well, without a
+     * count query.</p>
+     *
+     * @param selection the facet values to keep, see {@link #selectFacets(Boolean, String)}
+     * @param pageable  pagination information including page number and size
+     * @return a {@link Page} of {@link StorySummary} objects, newest first
+     */
+    public Page<StorySummary> getStories(StoryFacetIndex.Selection selection, Pageable pageable){
+        long start = System.nanoTime();
+        StorySearchIndex.Hits hits = storyFacetIndex.find(selection, (int) pageable.getOffset(), pageable.getPageSize());
+        List<StorySummary> content = findSummariesInOrder(hits.getStoryIds());
+        storyMetrics.recordFilteredFeed(start, content.size());
+        return new PageImpl<>(content, pageable, hits.getTotal());
+    }
+
+    /**
+     * Starts a facet selection for the home feed; its facets count all stories.
+     *
+     * @param isPositive the sentiment to keep, or {@code null} for both
+     * @param storyFor   the person to keep, or {@code null} for everyone
      */
-    public Page<Story> getStories(Pageable pageable){
-        Page<Story> storyList = storyRepository.findAllByOrderByCreatedAtDesc(pageable);
+    public StoryFacetIndex.Selection selectFacets(Boolean isPositive, String storyFor){
+        return storyFacetIndex.select(isPositive, storyFor);
+    }
 
-        for (Story story : storyList){
-            String shortDescription = story.getDescription();
-            shortDescription = truncateDescription(shortDescription);
-            story.setDescription(shortDescription);
+    /**
+     * Starts a facet selection for {@link #searchStories(String, StoryFacetIndex.Selection, Pageable)};
+     * its facets count the search matches.
+     */
+    public StoryFacetIndex.Selection selectSearchFacets(Boolean isPositive, String storyFor){
+        return storyFacetIndex.selectAmongMatches(isPositive, storyFor);
+    }
+
+    /**
+     * Full-text search over story names, titles and descriptions with pagination.
+     * 
+     * <p>This method queries the in-memory {@link StorySearchIndex} instead of the database,
+     * so no {@code LIKE '%...%'} table scan is needed. Every query term must match; the last
+     * term also matches as a prefix, so partially typed names still find their stories.
+     * Hits are ranked by relevance and only the ids of the requested page are hydrated
+     * from the database, in a single query.</p>
+     * 
+     * <p>Example: Searching for "rahman teach" will match stories for "Mr. Rahman"
+     * that mention teaching, teachers, etc.</p>
+     *
+     * <p>Matches are also narrowed to the facet values of {@code selection}, which counts
+     * the facets of every match on the way.</p>
+     *
+     * @param query     the free text search query
+     * @param selection the facet values to keep, see {@link #selectSearchFacets(Boolean, String)}
+     * @param pageable  pagination information including page number and size
+     * @return a {@link Page} of {@link StorySummary} objects matching the query,
+     *         best match first
+     * @see StorySearchIndex#search(String, int, int, java.util.function.Predicate)
+     */
+    public Page<StorySummary> searchStories(String query, StoryFacetIndex.Selection selection, Pageable pageable){
+        long start = System.nanoTime();
+        StorySearchIndex.Hits hits = storySearchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize(),
+                selection);
+        if (hits.getStoryIds().isEmpty()) {
+            storyMetrics.recordSearch(start, 0);
+            return new PageImpl<>(List.of(), pageable, hits.getTotal());
         }
 
-        return storyList;
+        List<StorySummary> content = findSummariesInOrder(hits.getStoryIds());
+        storyMetrics.recordSearch(start, content.size());
+        return new PageImpl<>(content, pageable, hits.getTotal());
     }
 
     /**
-     * Searches for stories by title with case-insensitive matching and pagination.
+     * Suggests {@code storyFor} names while the user types a search.
      * 
-     * <p>This method performs a substring search on story titles, ignoring case
-     * sensitivity. Results are ordered by creation date (newest first) and
-     * descriptions are automatically truncated to 200 characters for display.</p>
+     * <p>Answered from the in-memory {@link StoryForSuggestionIndex}, without touching the
+     * database. Names match when one of their words starts with the typed text and come
+     * with the number of stories about them, most stories first.</p>
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of names, at most {@value StoryForSuggestionIndex#TOP_K}
+     * @return suggested names with their story counts
+     */
+    public List<StoryForSuggestionIndex.Suggestion> suggestStoryFor(String prefix, int limit){
+        return storyForSuggestionIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Retrieves the most viewed stories of the last hours.
      * 
-     * <p>Example: Searching for "love" will match stories with titles like
-     * "Love Story", "Unloved", "LOVE AND LOSS", etc.</p>
+     * <p>The ranking comes from {@link TrendingStories}, which is fed by the batched view
+     * counts of {@link StoryViewCounter} and weighs recent views above older ones. Only the
+     * ranked ids are kept in memory; their summaries are loaded in a single query.</p>
      *
-     * @param storyFor the search term to match against story titles (case-insensitive)
-     * @param pageable pagination information including page number, size, and sorting
-     * @return a {@link Page} of {@link Story} objects matching the search criteria,
-     *         with truncated descriptions, ordered by creation date in descending order
-     * @see #truncateDescription(String)
+     * @param size maximum number of stories
+     * @return {@link StorySummary} objects, most trending first
      */
-    public Page<Story> searchStoryByNamePageable(String storyFor, Pageable pageable){
-       Page<Story> storyList = storyRepository.findStoriesByStoryForContainingIgnoreCaseOrderByCreatedAtDesc(storyFor,pageable);
+    public List<StorySummary> getTrendingStories(int size){
+        return findSummariesInOrder(trendingStories.top(size));
+    }
+
+    // Loads summaries by id in one query and returns them in the order of the ids,
+    // skipping stories deleted in the meantime
+    private List<StorySummary> findSummariesInOrder(List<UUID> storyIds){
+        if (storyIds.isEmpty()) return List.of();
 
-        for (Story story : storyList){
-            String shortDescription = story.getDescription();
-            shortDescription = truncateDescription(shortDescription);
-            story.setDescription(shortDescription);
+        Map<UUID, StorySummary> summaries = new HashMap<>();
+        for (StorySummary summary : storyRepository.findStorySummariesByStoryIdIn(storyIds)) {
+            summaries.put(summary.getStoryId(), summary);
         }
 
-        return storyList;
+        List<StorySummary> content = new ArrayList<>(storyIds.size());
+        for (UUID storyId : storyIds) {
+            StorySummary summary = summaries.get(storyId);
+            if (summary != null) {
+                content.add(summary);
+            }
+        }
+        return content;
     }
 
     /**
-     * Retrieves all stories posted by a specific user with pagination.
+     * Retrieves all stories posted by a specific user with cursor pagination.
      * 
      * <p>This method searches for stories using the hashed username to maintain
      * user anonymity at the database level. The username is hashed before querying,
@@ -91,24 +238,22 @@ public class StoryService {
      * </ul>
      *
      * @param username the username of the story author (will be hashed internally)
-     * @param pageable pagination information including page number, size, and sorting
-     * @return a {@link Page} of {@link Story} objects authored by the specified user,
-     *         with truncated descriptions, ordered by creation date in descending order
+     * @param after    cursor to move to older stories, or {@code null}
+     * @param before   cursor to move to newer stories, or {@code null}
+     * @param size     maximum number of stories on the page
+     * @return a {@link StorySlice} of {@link StorySummary} objects authored by the specified user,
+     *         ordered by creation date in descending order
      * @see HashUtil#hash(String)
-     * @see #truncateDescription(String)
      */
-    public Page<Story> searchStoryByUserPageable(String username, Pageable pageable) {
-        username = hashUtil.hash(username);
-//        System.out.println(username);
-        Page<Story> storyList = storyRepository.findStoriesByStoryByOrderByCreatedAtDesc(username,pageable);
-
-        for (Story story : storyList){
-            String shortDescription = story.getDescription();
-            shortDescription = truncateDescription(shortDescription);
-            story.setDescription(shortDescription);
-        }
-
-        return storyList;
+    public StorySlice searchStoryByUser(String username, String after, String before, int size) {
+        long start = System.nanoTime();
+        String storyBy = hashUtil.hash(username);
+        StorySlice slice = scroll(after, before, size,
+                pageable -> storyRepository.findStorySummariesByStoryByOrderByCreatedAtDescStoryIdDesc(storyBy, pageable),
+                (createdAt, storyId, pageable) -> storyRepository.findStorySummariesByStoryByAfter(storyBy, createdAt, storyId, pageable),
+                (createdAt, storyId, pageable) -> storyRepository.findStorySummariesByStoryByBefore(storyBy, createdAt, storyId, pageable));
+        storyMetrics.recordDashboard(start, slice.getContent().size());
+        return slice;
     }
 
     /**
@@ -123,24 +268,69 @@ public class StoryService {
      *         if no story exists with that ID
      */
     public Story getStoryById(UUID storyId){
-        return storyRepository.findStoryByStoryId(storyId);
+        Story story = storyRepository.findStoryByStoryId(storyId);
+        storyMetrics.recordDescription(story);
+        return story;
+    }
+
+    /**
+     * Retrieves only the version and last update time of a story.
+     * 
+     * <p>This is what a conditional GET of the story page needs to decide whether the
+     * client's copy is still current, at the cost of a primary key lookup that never
+     * touches the description.</p>
+     *
+     * @param storyId the unique UUID identifier of the story
+     * @return the {@link StoryStamp}, or {@code null} if no story exists with that ID
+     */
+    public StoryStamp getStoryStamp(UUID storyId){
+        return storyRepository.findStoryStampByStoryId(storyId);
+    }
+
+    /**
+     * Strong ETag of the public home feed, see {@link StoryFeedCache#getETag()}.
+     */
+    public String getFeedETag(){
+        return storyFeedCache.getETag();
+    }
+
+    /**
+     * Time of the last story mutation as epoch milliseconds, the feed's Last-Modified.
+     */
+    public long getFeedLastModified(){
+        return storyFeedCache.getLastModified();
     }
 
     /**
-     * Deletes a story from the database by its unique identifier.
+     * Deletes a story if the user is allowed to.
+     * 
+     * <p>Ownership is checked by the {@code DELETE} statement itself: it only matches the story
+     * if its stored author hash is the hash of {@code username}, or if the user is an admin.
+     * The story is not loaded first, so this takes a single round trip.</p>
      * 
-     * <p>This method permanently removes the story from the database.
-     * Authorization checks should be performed at the controller level
-     * before calling this method to ensure only the story author can
-     * delete their own stories.</p>
+     * <p>The story is also removed from the full-text search index, the name suggestions, the facets, the trending ranking,
+     * the cached home feed and the rendered fragment cache, and a {@link StoryFeedEvent} tells the live feed.</p>
      * 
      * <p><strong>Warning:</strong> This operation is irreversible. Once deleted,
      * the story cannot be recovered.</p>
      *
-     * @param storyId the unique UUID identifier of the story to delete
+     * @param storyId  the unique UUID identifier of the story to delete
+     * @param username the user asking for the deletion (will be hashed internally)
+     * @param admin    whether the user may delete any story
+     * @return {@code false} if the story does not exist or belongs to another user
      */
-    public void deleteStoryById(UUID storyId){
-        storyRepository.deleteById(storyId);
+    public boolean deleteStory(UUID storyId, String username, boolean admin){
+        if (storyRepository.deleteStoryByStoryId(storyId, hashUtil.hash(username), admin) == 0) {
+            return false;
+        }
+        storySearchIndex.remove(storyId);
+        storyForSuggestionIndex.remove(storyId);
+        storyFacetIndex.remove(storyId);
+        trendingStories.remove(storyId);
+        storyFeedCache.invalidate();
+        storyFragmentCache.evict(storyId);
+        eventPublisher.publishEvent(StoryFeedEvent.deleted(storyId));
+        return true;
     }
 
     /**
@@ -158,8 +348,13 @@ public class StoryService {
      *   <li>Current timestamp as the creation date</li>
      * </ul>
      * 
-     * <p>For existing stories (updates), this preserves the original story ID
-     * and creation date while updating the content fields.</p>
+     * <p>Edits of existing stories go through {@link #updateStory(UUID, String, Story)},
+     * which preserves the original author and creation date.</p>
+     * 
+     * <p>The list view excerpt is recomputed from the description on every save,
+     * so listings can read it without loading the full body, the story is
+     * (re-)indexed for full-text search and the cached home feed is invalidated.
+     * A {@link StoryFeedEvent} then pushes it to the live feed.</p>
      *
      * @param story the {@link Story} object to save or update. The {@code storyBy}
      *              field should contain the plain username, which will be hashed
@@ -168,7 +363,202 @@ public class StoryService {
      */
     public void saveStory(Story story) {
         story.setStoryBy(hashUtil.hash(story.getStoryBy()));
-        storyRepository.save(story);
+        story.setExcerpt(truncateDescription(story.getDescription()));
+        story.setUpdatedAt(LocalDateTime.now());
+        Story saved = storyRepository.save(story);
+        indexStory(saved);
+        storyFeedCache.invalidate();
+        eventPublisher.publishEvent(StoryFeedEvent.saved(List.of(saved.getStoryId())));
+    }
+
+    /**
+     * Updates the content of a story written by {@code username}.
+     * 
+     * <p>Only the content fields (subject, title, description and sentiment), the
+     * excerpt and the update time are written, with one {@code UPDATE} that also
+     * matches the author hash, so another user's story is never changed and nothing
+     * is read beforehand. The author and the creation date are kept. The version is
+     * incremented, which changes the ETag of the story page.</p>
+     * 
+     * <p>Like {@link #saveStory(Story)}, the story is re-indexed and the cached home
+     * feed is invalidated and the live feed is told. Its rendered fragments are evicted as well.</p>
+     *
+     * @param storyId  the unique UUID identifier of the story to update
+     * @param username the user editing the story (will be hashed internally)
+     * @param changes  the submitted story holding the new content
+     * @return {@code false} if the story does not exist or belongs to another user
+     */
+    public boolean updateStory(UUID storyId, String username, Story changes) {
+        int updated = storyRepository.updateStoryContent(storyId, hashUtil.hash(username), changes.getStoryFor(),
+                changes.getTitle(), changes.getDescription(), truncateDescription(changes.getDescription()),
+                changes.getIsPositive(), LocalDateTime.now());
+        if (updated == 0) return false;
+        storySearchIndex.index(storyId, changes.getStoryFor(), changes.getTitle(), changes.getDescription());
+        storyForSuggestionIndex.add(storyId, changes.getStoryFor());
+        storyFacetIndex.add(storyId, changes.getStoryFor(), changes.getIsPositive());
+        storyFeedCache.invalidate();
+        storyFragmentCache.evict(storyId);
+        eventPublisher.publishEvent(StoryFeedEvent.updated(storyId));
+        return true;
+    }
+
+    /**
+     * Checks whether {@code username} wrote the story, for the edit form.
+     *
+     * @param story    a loaded story
+     * @param username the signed-in user (will be hashed internally)
+     * @return {@code true} if the story's author hash is the user's
+     */
+    public boolean isAuthor(Story story, String username) {
+        return story.getStoryBy() != null && story.getStoryBy().equals(hashUtil.hash(username));
+    }
+
+    /**
+     * Saves a batch of new stories in a single transaction.
+     * 
+     * <p>This is the bulk counterpart of {@link #saveStory(Story)}: all authors are hashed
+     * in one call, excerpts are computed, and the stories are persisted together so that
+     * Hibernate sends them as JDBC batch inserts. Story ids are generated client-side by
+     * Hibernate, so no round trip is needed per row. The search index and the feed cache
+     * are only updated, and one {@link StoryFeedEvent} for the whole batch published, once the
+     * transaction has committed.</p>
+     *
+     * @param stories new stories whose {@code storyBy} holds the plain username
+     */
+    public void saveStories(List<Story> stories) {
+        List<String> storyBy = new ArrayList<>(stories.size());
+        for (Story story : stories) {
+            storyBy.add(story.getStoryBy());
+        }
+        List<String> hashes = hashUtil.hash(storyBy);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < stories.size(); i++) {
+            Story story = stories.get(i);
+            story.setStoryBy(hashes.get(i));
+            story.setExcerpt(truncateDescription(story.getDescription()));
+            story.setUpdatedAt(now);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> storyRepository.saveAll(stories));
+
+        stories.forEach(this::indexStory);
+        storyFeedCache.invalidate();
+        eventPublisher.publishEvent(StoryFeedEvent.saved(stories.stream().map(Story::getStoryId).toList()));
+    }
+
+    /**
+     * Puts stories saved out of creation order, such as a backdated import, back in their
+     * place in the filtered listings. Sorts every indexed story when needed, so it is called
+     * once a bulk load is done rather than per batch.
+     *
+     * @see StoryFacetIndex#reorder()
+     */
+    public void reorderFilteredListings() {
+        storyFacetIndex.reorder();
+    }
+
+    /**
+     * Rebuilds the in-memory indexes from the database once the application is ready.
+     * 
+     * <p>Stories are streamed oldest first and detached as they are indexed, so the
+     * persistence context stays small however many stories there are.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndexes() {
+        storySearchIndex.clear();
+        storyForSuggestionIndex.clear();
+        storyFacetIndex.clear();
+        try (Stream<Story> stories = storyRepository.streamAllByOrderByCreatedAtAscStoryIdAsc()) {
+            stories.forEach(story -> {
+                indexStory(story);
+                entityManager.detach(story);
+            });
+        }
+    }
+
+    /**
+     * Streams every story created in {@code [from, to)}, optionally only those about {@code storyFor},
+     * oldest first, to the given consumer.
+     * 
+     * <p>Rows are read forward-only with a JDBC fetch size and each entity is detached once the
+     * consumer is done with it, so memory use stays flat however many stories are exported.</p>
+     *
+     * @return the number of stories passed to the consumer
+     */
+    @Transactional(readOnly = true)
+    public long forEachStory(LocalDateTime from, LocalDateTime to, String storyFor, Consumer<Story> consumer) {
+        long count = 0;
+        try (Stream<Story> stories = storyRepository.streamForExport(from, to, storyFor)) {
+            Iterator<Story> iterator = stories.iterator();
+            while (iterator.hasNext()) {
+                Story story = iterator.next();
+                storyMetrics.recordDescription(story);
+                consumer.accept(story);
+                entityManager.detach(story);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void indexStory(Story story) {
+        storySearchIndex.index(story.getStoryId(), story.getStoryFor(), story.getTitle(), story.getDescription());
+        storyForSuggestionIndex.add(story.getStoryId(), story.getStoryFor());
+        storyFacetIndex.add(story.getStoryId(), story.getStoryFor(), story.getIsPositive(), story.getCreatedAt());
+    }
+
+    /**
+     * Runs one keyset page of a listing and builds its cursors.
+     * 
+     * <p>A {@code before} cursor wins over {@code after}. A malformed cursor, or one that
+     * no longer has stories beyond it, falls back to the first page. Backward pages are fetched oldest first and reversed here so
+     * every slice is rendered newest first.</p>
+     */
+    private StorySlice scroll(String after, String before, int size,
+                              Function<Pageable, Slice<StorySummary>> first,
+                              SeekQuery afterQuery, SeekQuery beforeQuery) {
+        Pageable pageable = PageRequest.of(0, size);
+        StoryCursor beforeCursor = StoryCursor.decode(before);
+        StoryCursor afterCursor = StoryCursor.decode(after);
+
+        if (beforeCursor != null) {
+            Slice<StorySummary> slice = beforeQuery.find(beforeCursor.getCreatedAt(), beforeCursor.getStoryId(), pageable);
+            List<StorySummary> stories = new ArrayList<>(slice.getContent());
+            Collections.reverse(stories);
+            if (stories.isEmpty()) {
+                return getFirstSlice(first, pageable);
+            }
+            return new StorySlice(stories,
+                    StoryCursor.of(stories.get(stories.size() - 1)).encode(),
+                    slice.hasNext() ? StoryCursor.of(stories.get(0)).encode() : null);
+        }
+
+        if (afterCursor != null) {
+            Slice<StorySummary> slice = afterQuery.find(afterCursor.getCreatedAt(), afterCursor.getStoryId(), pageable);
+            List<StorySummary> stories = slice.getContent();
+            if (stories.isEmpty()) {
+                return getFirstSlice(first, pageable);
+            }
+            return new StorySlice(stories,
+                    slice.hasNext() ? StoryCursor.of(stories.get(stories.size() - 1)).encode() : null,
+                    StoryCursor.of(stories.get(0)).encode());
+        }
+
+        return getFirstSlice(first, pageable);
+    }
+
+    private StorySlice getFirstSlice(Function<Pageable, Slice<StorySummary>> first, Pageable pageable) {
+        Slice<StorySummary> slice = first.apply(pageable);
+        List<StorySummary> stories = slice.getContent();
+        return new StorySlice(stories,
+                slice.hasNext() ? StoryCursor.of(stories.get(stories.size() - 1)).encode() : null,
+                null);
+    }
+
+    @FunctionalInterface
+    private interface SeekQuery {
+        Slice<StorySummary> find(LocalDateTime createdAt, UUID storyId, Pageable pageable);
     }
 
     /**
@@ -179,18 +569,22 @@ public class StoryService {
      * it is cut off and an ellipsis ("...") is appended to indicate truncation.
      * Descriptions of 200 characters or less are returned unchanged.</p>
      * 
-     * <p>This method is called internally by all story retrieval methods that
-     * return lists or pages of stories to optimize UI rendering and maintain
-     * consistent card layouts.</p>
+     * <p>This method is called when a story is saved to compute the stored excerpt
+     * that list views display, keeping card layouts consistent. The cut never
+     * splits a surrogate pair.</p>
      *
      * @param description the full story description text to truncate
      * @return the truncated description (max 200 chars + "...") if longer than
      *         200 characters, otherwise returns the original description unchanged.
      *         Returns the original value if {@code null}
      */
-    public String truncateDescription(String description){
-        if(description != null && description.length() > 200){
-            return description.substring(0,200) + "...";
+    public static String truncateDescription(String description){
+        if(description != null && description.length() > EXCERPT_LENGTH){
+            int end = EXCERPT_LENGTH;
+            if (Character.isHighSurrogate(description.charAt(end - 1))) {
+                end--;
+            }
+            return description.substring(0,end) + "...";
         }else {
             return description;
         }
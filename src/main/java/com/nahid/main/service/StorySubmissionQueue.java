@@ -0,0 +1,260 @@
+package com.nahid.main.service;
+
+import com.nahid.main.model.Story;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Accepts new stories and, in write-behind mode, saves them from a background writer in groups.
+ *
+ * <p>With {@code story-submissions.async=false} (the default) {@link #submit(String, Story)} saves
+ * the story right away through {@link StoryService#saveStory(Story)}. With {@code true} it only puts
+ * the story on a bounded queue and returns. A single writer thread takes whatever has piled up,
+ * at most {@code batch-size} stories, and saves it with {@link StoryService#saveStories(List)} in
+ * one transaction: under load many submissions share one commit, and when idle a story is written
+ * as soon as it arrives, without waiting for a batch to fill.</p>
+ *
+ * <p>When the queue is full a submission waits up to {@code offer-timeout} for room and is then
+ * refused, so a burst cannot grow the heap without bound or hide a stalled database. Until a
+ * story is committed it is kept per author, so {@link #getPendingStories(String)} can show it on
+ * the author's dashboard at once. A normal shutdown stops accepting, writes everything queued and
+ * only then lets the database go; a crash loses the stories still queued. Submissions check for
+ * shutdown and queue under a shared lock that {@link #close()} takes exclusively, so every story
+ * queued before shutdown is written and every later one is saved directly. A batch that fails is
+ * retried story by story, so one bad story cannot take the others with it.</p>
+ */
+@Slf4j
+@Component
+public class StorySubmissionQueue {
+
+    private static final long POLL_MILLIS = 200;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final StoryService storyService;
+    private final boolean async;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final BlockingQueue<Submission> queue;
+    private final Map<String, Queue<Submission>> pendingByAuthor = new ConcurrentHashMap<>();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public StorySubmissionQueue(StoryService storyService,
+                                @Value("${story-submissions.async}") boolean async,
+                                @Value("${story-submissions.capacity}") int capacity,
+                                @Value("${story-submissions.batch-size}") int batchSize,
+                                @Value("${story-submissions.offer-timeout}") Duration offerTimeout) {
+        this.storyService = storyService;
+        this.async = async;
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = async ? Thread.ofPlatform().name("story-writer").daemon().start(this::drain) : null;
+    }
+
+    /**
+     * Saves a new story, or queues it for the writer in write-behind mode.
+     *
+     * @param username the signed-in author
+     * @param story    the new story, {@code createdAt} already set; {@code storyBy} is filled in here
+     * @return {@code false} if the queue stayed full for {@code offer-timeout}; the story was not saved
+     */
+    public boolean submit(String username, Story story) {
+        story.setStoryBy(username);
+        if (async) {
+            closeLock.readLock().lock();
+            try {
+                if (!closed) {
+                    return enqueue(username, story);
+                }
+            } finally {
+                closeLock.readLock().unlock();
+            }
+        }
+        storyService.saveStory(story);
+        return true;
+    }
+
+    /**
+     * Stories of {@code username} accepted but not yet committed, newest first.
+     *
+     * <p>Take this before reading the author's stories from the database: a story committed in
+     * between is then in both lists (and should be shown once, by id), never in neither. Only
+     * the listing fields of the returned stories are meant to be read; the writer is still
+     * filling in the rest.</p>
+     */
+    public List<Story> getPendingStories(String username) {
+        Queue<Submission> pending = pendingByAuthor.get(username);
+        if (pending == null) return List.of();
+
+        List<Story> stories = new ArrayList<>();
+        for (Submission submission : pending) {
+            stories.add(0, submission.story);
+        }
+        return stories;
+    }
+
+    /** Stories waiting for the writer. */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /** Stories saved by the writer. */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /** Transactions the writer committed; written / batches is the average group size. */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /** Submissions refused because the queue stayed full. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Accepted stories the writer could not save. */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /** Stops accepting stories for the queue and waits until the writer has saved everything queued. */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (writer == null) return;
+        // Waits for submissions that are queueing right now; later ones see closed and save directly
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        if (!writer.isAlive() && !queue.isEmpty()) {
+            // The writer stopped early (it was interrupted); write what it left behind here
+            List<Submission> leftovers = new ArrayList<>();
+            queue.drainTo(leftovers);
+            write(leftovers);
+        }
+        if (writer.isAlive() || !queue.isEmpty()) {
+            log.warn("Shut down with {} story submissions not written", queue.size());
+        }
+    }
+
+    private boolean enqueue(String username, Story story) {
+        // Listed for the author before it can be written, so it never disappears from the dashboard
+        story.setExcerpt(StoryService.truncateDescription(story.getDescription()));
+        Submission submission = new Submission(username, story);
+        pendingByAuthor.compute(username, (author, pending) -> {
+            Queue<Submission> stories = pending == null ? new ConcurrentLinkedQueue<>() : pending;
+            stories.add(submission);
+            return stories;
+        });
+        try {
+            if (queue.offer(submission, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        forget(submission);
+        rejected.increment();
+        return false;
+    }
+
+    private void drain() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Nothing in the application interrupts this thread; close() writes whatever is left
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        List<Story> stories = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            stories.add(submission.story);
+        }
+        try {
+            storyService.saveStories(stories);
+            written.add(batch.size());
+            batches.increment();
+        } catch (RuntimeException e) {
+            log.warn("Could not save {} queued stories together, saving them one by one", batch.size(), e);
+            for (Submission submission : batch) {
+                writeAlone(submission);
+            }
+        }
+        for (Submission submission : batch) {
+            forget(submission);
+        }
+    }
+
+    private void writeAlone(Submission submission) {
+        // Undo what the failed batch did to the entity before persisting it again
+        Story story = submission.story;
+        story.setStoryId(null);
+        story.setVersion(null);
+        story.setStoryBy(submission.username);
+        try {
+            storyService.saveStory(story);
+            written.add(1);
+            batches.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Could not save a queued story of {}, it is dropped", submission.username, e);
+        }
+    }
+
+    private void forget(Submission submission) {
+        pendingByAuthor.computeIfPresent(submission.username, (author, pending) -> {
+            pending.remove(submission);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+
+    /**
+     * A queued story with its plain author name, which the story itself loses once it is hashed.
+     * Compared by identity, so two identical stories stay two submissions.
+     */
+    private static final class Submission {
+        final String username;
+        final Story story;
+
+        Submission(String username, Story story) {
+            this.username = username;
+            this.story = story;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.nahid.main.service;
+
+import com.nahid.main.index.TrendingStories;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts story page views in memory and writes them to {@code story_table.view_count} in batches.
+ *
+ * <p>Recording a view only increments a {@link LongAdder} for the story, which spreads contended
+ * increments over striped cells, so concurrent readers of a popular story never wait for each
+ * other or for the database. Every {@code story-views.flush-interval} the accumulated deltas are
+ * taken with {@link LongAdder#sumThenReset()} and written as one JDBC batch of
+ * {@code view_count = view_count + ?} updates in a single transaction, ordered by story id so
+ * concurrent flushes from several instances lock rows in the same order. Once that transaction
+ * has committed, the same deltas feed {@link TrendingStories}.</p>
+ *
+ * <p>Loss is bounded: views are only held in memory between two flushes, so a crash loses at
+ * most one flush interval of views (plus a flush still in flight). A failed flush puts its
+ * deltas back to be retried and leaves the ranking alone, so a retried view is counted once in
+ * both, and a normal shutdown flushes what is left. Counters of stories that had no view for a
+ * whole interval are dropped to keep the map small; a view racing with that removal can be lost.</p>
+ */
+@Slf4j
+@Component
+public class StoryViewCounter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TrendingStories trendingStories;
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushed = new LongAdder();
+
+    public StoryViewCounter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            TrendingStories trendingStories) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.trendingStories = trendingStories;
+    }
+
+    public void recordView(UUID storyId) {
+        LongAdder views = pending.get(storyId);
+        if (views == null) {
+            views = pending.computeIfAbsent(storyId, id -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    /** Writes the views counted since the last flush and adds them to the trending ranking. */
+    @Scheduled(fixedDelayString = "${story-views.flush-interval}", initialDelayString = "${story-views.flush-interval}")
+    public synchronized void flush() {
+        Map<UUID, Long> deltas = new TreeMap<>();
+        for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+            if (views > 0) {
+                deltas.put(entry.getKey(), views);
+            } else {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (deltas.isEmpty()) return;
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((storyId, views) -> rows.add(new Object[]{views, storyId}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "update story_table set view_count = view_count + ? where story_id = ?", rows, BATCH_SIZE,
+                    (statement, row) -> {
+                        statement.setLong(1, (Long) row[0]);
+                        statement.setObject(2, row[1]);
+                    }));
+            flushed.add(rows.size());
+        } catch (DataAccessException | TransactionException e) {
+            // Keep the views for the next flush rather than losing them
+            deltas.forEach((storyId, views) -> pending.computeIfAbsent(storyId, id -> new LongAdder()).add(views));
+            log.warn("Could not write {} story view counts, retrying with the next flush", deltas.size(), e);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        deltas.forEach((storyId, views) -> trendingStories.add(storyId, views, now));
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /** Stories with views waiting for the next flush. */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** Story rows updated by flushes so far. */
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+}
@@ -2,16 +2,50 @@ package com.nahid.main.service;
 
 import com.nahid.main.model.User;
 import com.nahid.main.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.nahid.main.util.BloomFilter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
+    /** Length of the {@code username} column. */
+    public static final int USERNAME_MAX_LENGTH = 255;
+
+    private static final String USERNAME_TAKEN = "Username is already taken";
+    private static final String USERNAME_CONSTRAINT = "uk_user_table_username";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final int expectedUsers;
+    private final double falsePositiveRate;
+    private final LongAdder filteredChecks = new LongAdder();
+    private final LongAdder probedChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile BloomFilter usernameFilter;
+    private volatile boolean usernameFilterReady;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       CustomUserDetailsService customUserDetailsService,
+                       @Value("${username-filter.expected-users}") int expectedUsers,
+                       @Value("${username-filter.false-positive-rate}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.customUserDetailsService = customUserDetailsService;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
 
     /**
      * Registers a new user in the system with secure password encryption.
@@ -23,32 +57,128 @@ public class UserService {
      * 
      * <p>Registration process:</p>
      * <ul>
-     *   <li>Validates that the username is unique (not already taken)</li>
      *   <li>Encrypts the password using BCrypt for secure storage</li>
      *   <li>Assigns default user role (ROLE_USER)</li>
-     *   <li>Persists the new user to the database</li>
+     *   <li>Persists the new user to the database with a single insert</li>
+     *   <li>Adds the username to the username filter</li>
+     *   <li>Evicts any cached login details for the username</li>
      * </ul>
      * 
+     * <p>The username is not looked up first: the unique constraint on {@code username}
+     * rejects a taken name, including one claimed by a concurrent registration, and the
+     * violation is reported as taken. Any other integrity violation is rethrown as is.</p>
+     * 
      * <p><strong>Security Note:</strong> Passwords are never stored in plain text.
      * BCrypt hashing is a one-way encryption that protects user credentials even
      * if the database is compromised.</p>
      *
      * @param username the desired username for the new account (must be unique)
      * @param password the plain text password (will be encrypted before storage)
-     * @throws Exception if the username is already taken by another user
+     * @throws Exception if the username is already taken by another user or is too long
      * @see PasswordEncoder#encode(CharSequence)
      */
     public void registerUser(String username, String password) throws Exception {
-        User user = userRepository.findByUsername(username);
-        if(user != null){
-            throw new Exception("Username is already taken");
+        if (username.length() > USERNAME_MAX_LENGTH) {
+            throw new Exception("Username must be at most " + USERNAME_MAX_LENGTH + " characters");
         }
-
-        user = new User();
+        User user = new User();
         user.setUsername(username);
         user.setPassword(passwordEncoder.encode(password));
         user.setRole("ROLE_USER");
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUsernameConflict(e)) {
+                throw new Exception(USERNAME_TAKEN);
+            }
+            throw e;
+        } finally {
+            customUserDetailsService.evictUser(username);
+        }
+        BloomFilter filter = usernameFilter;
+        if (filter != null) {
+            filter.add(username);
+        }
+    }
+
+    /**
+     * Checks whether a username can still be registered, for the registration form.
+     * 
+     * <p>Most names asked for are free, and the username filter answers those from memory
+     * without touching the database. Only when the filter reports a possible match is the
+     * unique username index probed. Until the filter is built every check probes.</p>
+     * 
+     * <p>The answer is advisory: a concurrent registration can still take the name, which
+     * {@link #registerUser(String, String)} then reports.</p>
+     *
+     * @param username the username typed so far
+     * @return {@code true} if no user has this username
+     */
+    public boolean isUsernameAvailable(String username) {
+        // Ready is read first: it is only set after the filter, so a ready filter is never null
+        boolean ready = usernameFilterReady;
+        if (ready && !usernameFilter.mightContain(username)) {
+            filteredChecks.increment();
+            return true;
+        }
+        probedChecks.increment();
+        boolean taken = userRepository.existsByUsername(username);
+        if (!taken && ready) {
+            falsePositives.increment();
+        }
+        return !taken;
+    }
+
+    /**
+     * Builds the username filter from every registered user once the application is ready.
+     * 
+     * <p>The filter is published before the usernames are read, so a user registered while
+     * it is being built is either read here or added by {@link #registerUser(String, String)};
+     * checks keep probing the database until every name is in.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildUsernameFilter() {
+        long users = userRepository.count();
+        BloomFilter filter = new BloomFilter((int) Math.max(expectedUsers, Math.min(Integer.MAX_VALUE / 2, 2 * users)),
+                falsePositiveRate);
+        usernameFilter = filter;
+        try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+            usernames.forEach(filter::add);
+        }
+        usernameFilterReady = true;
+    }
+
+    /** Username checks answered by the filter alone. */
+    public long getFilteredCheckCount() {
+        return filteredChecks.sum();
+    }
+
+    /** Username checks that had to look up the username index. */
+    public long getProbedCheckCount() {
+        return probedChecks.sum();
+    }
+
+    /** Probes of free usernames, caused by false positives of the filter. */
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /** Approximate heap taken by the username filter, in bytes. */
+    public long getUsernameFilterMemory() {
+        BloomFilter filter = usernameFilter;
+        return filter == null ? 0 : filter.estimateMemory();
+    }
+
+    /** Whether the violation is the unique username constraint, as opposed to a too long value or a missing column. */
+    private static boolean isUsernameConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(USERNAME_CONSTRAINT);
+            }
+        }
+        return false;
     }
 
 }
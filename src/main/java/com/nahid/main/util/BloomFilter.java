@@ -0,0 +1,96 @@
+package com.nahid.main.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings: {@link #mightContain(String)} never misses a string that was added
+ * and wrongly reports one that was not with about the false positive rate it was sized for.
+ *
+ * <p>The bit count and the number of probes are the optimal ones for the expected number of
+ * strings and the wanted rate; adding more strings than expected only raises the rate. Probe
+ * positions come from one 64-bit hash split into two halves and combined as
+ * {@code h1 + i * h2} (Kirsch and Mitzenmacher), so a lookup hashes the string once.</p>
+ *
+ * <p>Bits are set with atomic ORs, so adds and lookups need no lock, and a string is visible to
+ * every lookup that starts after its {@link #add(String)} returned.</p>
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+        this.bitCount = 64L * words.length();
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /** {@code false} if {@code value} was never added; {@code true} if it probably was. */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /** Approximate heap taken by the bits, in bytes. */
+    public long estimateMemory() {
+        return 16 + bitCount / 8;
+    }
+
+    private long index(int combined) {
+        // Flip negative combinations, as Guava does, instead of taking a modulus of a signed value
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+
+    /** FNV-1a over the chars, finished with MurmurHash3's 64-bit mix so both halves are well spread. */
+    private static long hash(String value) {
+        long h = 0x9E3779B97F4A7C15L ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85B87L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,92 @@
+package com.nahid.main.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of long text, used for story descriptions in the database.
+ *
+ * <p>The first byte tells the format: {@link #STORED} is plain UTF-8 and {@link #DEFLATED} is
+ * raw deflate of the UTF-8 bytes. Short text rarely gets smaller with deflate, so it is only used
+ * when it saves space. Creating a {@link Deflater} or {@link Inflater} allocates native buffers,
+ * so each thread keeps one of each and resets it after use.</p>
+ */
+public final class TextCompression {
+
+    public static final byte STORED = 0;
+    public static final byte DEFLATED = 1;
+
+    /** Below this many bytes, text is always stored as is. */
+    private static final int MIN_DEFLATE_LENGTH = 64;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private TextCompression() {
+    }
+
+    public static byte[] compress(String text) {
+        if (text == null) return null;
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_DEFLATE_LENGTH) {
+            byte[] deflated = deflate(utf8);
+            if (deflated != null) {
+                return deflated;
+            }
+        }
+        byte[] stored = new byte[utf8.length + 1];
+        stored[0] = STORED;
+        System.arraycopy(utf8, 0, stored, 1, utf8.length);
+        return stored;
+    }
+
+    public static String decompress(byte[] data) {
+        if (data == null) return null;
+        if (data.length == 0) return "";
+        return switch (data[0]) {
+            case STORED -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case DEFLATED -> inflate(data);
+            default -> throw new IllegalArgumentException("Unknown text encoding " + data[0]);
+        };
+    }
+
+    /** Format byte followed by the deflate stream, or {@code null} if that is not smaller than the text. */
+    private static byte[] deflate(byte[] utf8) {
+        Deflater deflater = DEFLATERS.get();
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            byte[] buffer = new byte[utf8.length];
+            buffer[0] = DEFLATED;
+            int length = 1 + deflater.deflate(buffer, 1, buffer.length - 1);
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : null;
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    private static String inflate(byte[] data) {
+        Inflater inflater = INFLATERS.get();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream utf8 = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated deflate stream");
+                }
+                utf8.write(buffer, 0, length);
+            }
+            return utf8.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt deflate stream", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package db.migration;
+
+import com.nahid.main.util.TextCompression;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Moves story descriptions from a CLOB to a binary column holding {@link TextCompression} output.
+ *
+ * <p>The compression runs in Java, so this migration cannot be plain SQL: existing rows are read,
+ * compressed and written to a new column in batches, then the new column replaces the old one
+ * under the same name.</p>
+ */
+public class V6__Compress_story_descriptions extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table story_table add column description_deflated varbinary");
+        }
+
+        try (Statement select = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement(
+                     "update story_table set description_deflated = ? where story_id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery("select story_id, description from story_table")) {
+                int pending = 0;
+                while (rows.next()) {
+                    update.setBytes(1, TextCompression.compress(rows.getString(2)));
+                    update.setObject(2, rows.getObject(1));
+                    update.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        update.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    update.executeBatch();
+                }
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table story_table drop column description");
+            statement.execute("alter table story_table alter column description_deflated rename to description");
+        }
+    }
+}
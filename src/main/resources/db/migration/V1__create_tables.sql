@@ -0,0 +1,22 @@
+-- Initial schema, previously generated by Hibernate auto-DDL
+
+create table story_table (
+    story_id    uuid not null,
+    story_for   varchar(255),
+    story_by    varchar(255),
+    title       varchar(255),
+    description clob,
+    excerpt     varchar(203),
+    is_positive boolean,
+    created_at  timestamp(6),
+    primary key (story_id)
+);
+
+create table user_table (
+    user_id  uuid not null,
+    username varchar(255) not null,
+    password varchar(255),
+    role     varchar(255),
+    primary key (user_id),
+    constraint uk_user_table_username unique (username)
+);
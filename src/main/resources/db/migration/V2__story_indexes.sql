@@ -0,0 +1,10 @@
+-- Indexes matching every StoryRepository query (see StoryRepositoryQueryPlanTests)
+
+-- Home feed: keyset pagination on (created_at DESC, story_id DESC)
+create index idx_story_created_at_story_id on story_table (created_at desc, story_id desc);
+
+-- User dashboard: stories of one hashed author, newest first
+create index idx_story_story_by_created_at on story_table (story_by, created_at desc, story_id desc);
+
+-- Lookups by the person a story is about
+create index idx_story_story_for on story_table (story_for);
@@ -36,4 +36,9 @@ VALUES
 insert into user_table(user_id,username,password,role)
 values
 ('79d96e2a-b9c3-4bbd-950d-63452b282644', 'root',	'$2a$10$ZMKzPyiFvAl8kDZS4mPFk.KrHBQ18jhs5Tj8/xBPbyQ5wUzw7hSyq','ROLE_USER'),
-('79d96e2a-b9c3-4bbd-950d-63452b282645', 'admin',	'$2a$10$ZMKzPyiFvAl8kDZS4mPFk.KrHBQ18jhs5Tj8/xBPbyQ5wUzw7hSyq','ROLE_ADMIN');
\ No newline at end of file
+('79d96e2a-b9c3-4bbd-950d-63452b282645', 'admin',	'$2a$10$ZMKzPyiFvAl8kDZS4mPFk.KrHBQ18jhs5Tj8/xBPbyQ5wUzw7hSyq','ROLE_ADMIN');
+
+-- Backfill the list view excerpt for the seeded stories (first 200 characters plus an ellipsis)
+update story_table
+set excerpt = case when char_length(description) > 200 then substring(description, 1, 200) || '...' else description end
+where excerpt is null;
@@ -0,0 +1,6 @@
+-- Optimistic locking version and last update time, used for ETag / Last-Modified on story pages
+
+alter table story_table add column version bigint default 0 not null;
+alter table story_table add column updated_at timestamp(6);
+
+update story_table set updated_at = created_at where updated_at is null;
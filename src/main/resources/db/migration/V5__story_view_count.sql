@@ -0,0 +1,3 @@
+-- Story page views, incremented in batches by StoryViewCounter
+
+alter table story_table add column view_count bigint default 0 not null;
@@ -0,0 +1,50 @@
+// Keeps the first page of the home feed current with the stories pushed by /stories/live.
+(function () {
+    var feed = document.getElementById('live-feed');
+    if (!feed || !window.EventSource) return;
+
+    // EventSource reconnects by itself after a heartbeat timeout, an eviction or a restart
+    var source = new EventSource(feed.dataset.source);
+
+    source.addEventListener('story-saved', function (event) {
+        var story = JSON.parse(event.data);
+        if (findCard(story.storyId)) return;
+
+        // Cards are newest first; a story older than every card shown belongs to a later page
+        var time = Date.parse(story.createdAt);
+        var cards = feed.querySelectorAll('.posts');
+        var next = null;
+        for (var i = 0; i < cards.length; i++) {
+            if (Date.parse(cards[i].dataset.createdAt) < time) {
+                next = cards[i];
+                break;
+            }
+        }
+        if (!next && cards.length > 0) return;
+        feed.insertBefore(createCard(story), next);
+    });
+
+    source.addEventListener('story-updated', function (event) {
+        var story = JSON.parse(event.data);
+        var card = findCard(story.storyId);
+        if (card) card.replaceWith(createCard(story));
+    });
+
+    source.addEventListener('story-deleted', function (event) {
+        var card = findCard(JSON.parse(event.data).storyId);
+        if (card) card.remove();
+    });
+
+    function findCard(storyId) {
+        return feed.querySelector('.posts[data-story-id="' + storyId + '"]');
+    }
+
+    function createCard(story) {
+        var card = document.createElement('div');
+        card.className = 'posts';
+        card.dataset.storyId = story.storyId;
+        card.dataset.createdAt = story.createdAt;
+        card.innerHTML = story.html;
+        return card;
+    }
+})();
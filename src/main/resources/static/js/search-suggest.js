@@ -0,0 +1,36 @@
+// Fills the search box's datalist with names from /search/suggest while the user types.
+(function () {
+    var input = document.getElementById('search-input');
+    var list = document.getElementById('search-suggestions');
+    if (!input || !list) return;
+
+    var timer = null;
+    var latest = '';
+
+    input.addEventListener('input', function () {
+        clearTimeout(timer);
+        timer = setTimeout(suggest, 120);
+    });
+
+    function suggest() {
+        var query = input.value.trim();
+        latest = query;
+        if (query.length < 2) {
+            list.replaceChildren();
+            return;
+        }
+        fetch('/search/suggest?q=' + encodeURIComponent(query), {headers: {'Accept': 'application/json'}})
+            .then(function (response) { return response.ok ? response.json() : []; })
+            .then(function (suggestions) {
+                // Answers can arrive out of order; only show the one for the current text
+                if (query !== latest) return;
+                list.replaceChildren.apply(list, suggestions.map(function (suggestion) {
+                    var option = document.createElement('option');
+                    option.value = suggestion.name;
+                    option.label = suggestion.count + (suggestion.count === 1 ? ' story' : ' stories');
+                    return option;
+                }));
+            })
+            .catch(function () { /* suggestions are optional */ });
+    }
+})();
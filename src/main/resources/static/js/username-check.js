@@ -0,0 +1,40 @@
+// Tells whether the typed username is still free, from /register/check, while the user types.
+(function () {
+    var input = document.getElementById('username');
+    var status = document.getElementById('username-status');
+    if (!input || !status) return;
+
+    var timer = null;
+    var latest = '';
+
+    input.addEventListener('input', function () {
+        clearTimeout(timer);
+        timer = setTimeout(check, 250);
+    });
+
+    function check() {
+        var username = input.value;
+        latest = username;
+        if (username.trim() === '') {
+            show('', '');
+            return;
+        }
+        fetch('/register/check?username=' + encodeURIComponent(username), {headers: {'Accept': 'application/json'}})
+            .then(function (response) { return response.ok ? response.json() : null; })
+            .then(function (result) {
+                // Answers can arrive out of order; only show the one for the current text
+                if (!result || username !== latest) return;
+                if (result.available) {
+                    show('message', 'Username is available');
+                } else {
+                    show('error', 'Username is already taken');
+                }
+            })
+            .catch(function () { /* registration reports a taken name anyway */ });
+    }
+
+    function show(className, text) {
+        status.className = className;
+        status.textContent = text;
+    }
+})();
@@ -0,0 +1,81 @@
+package com.nahid.main.cache;
+
+import com.nahid.main.model.StorySlice;
+import com.nahid.main.model.StorySummary;
+import com.nahid.main.repository.StoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoryFeedCacheTests {
+
+    private final StoryRepository storyRepository = mock(StoryRepository.class);
+    private final StoryFeedCache cache = new StoryFeedCache(storyRepository, 5, Duration.ofMinutes(5));
+
+    @Test
+    void headLoadedBeforeASaveIsNeverServedAfterIt() throws Exception {
+        StorySummary old = summary(LocalDateTime.now().minusDays(1));
+        StorySummary saved = summary(LocalDateTime.now());
+        AtomicReference<List<StorySummary>> table = new AtomicReference<>(List.of(old));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(storyRepository.findStorySummariesByOrderByCreatedAtDescStoryIdDesc(any(Pageable.class))).thenAnswer(call -> {
+            List<StorySummary> read = table.get();
+            if (loads.getAndIncrement() == 0) {
+                // The first load has read the table and is still on its way back
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return new SliceImpl<>(read);
+        });
+
+        Thread reader = new Thread(() -> cache.getSlice(null, null, 4));
+        reader.start();
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        table.set(List.of(saved, old));
+        cache.invalidate();
+        release.countDown();
+        reader.join(5000);
+
+        StorySlice slice = cache.getSlice(null, null, 4);
+        if (slice == null) {
+            // The stale head was found and dropped on this call; the next one loads a fresh head
+            slice = cache.getSlice(null, null, 4);
+        }
+        assertThat(slice.getContent()).containsExactly(saved, old);
+        assertThat(cache.getSlice(null, null, 4).getContent()).containsExactly(saved, old);
+    }
+
+    @Test
+    void servesPagesInsideTheHeadAndMissesBeyondIt() {
+        List<StorySummary> stories = List.of(summary(LocalDateTime.now()), summary(LocalDateTime.now().minusHours(1)));
+        when(storyRepository.findStorySummariesByOrderByCreatedAtDescStoryIdDesc(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(stories));
+
+        StorySlice first = cache.getSlice(null, null, 1);
+
+        assertThat(first.getContent()).containsExactly(stories.get(0));
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(cache.getCacheStats().hitCount()).isEqualTo(1);
+        assertThat(cache.getCacheStats().loadSuccessCount()).isEqualTo(1);
+    }
+
+    private static StorySummary summary(LocalDateTime createdAt) {
+        return new StorySummary(UUID.randomUUID(), "Mr. Rahman", "Title", "Excerpt", true, createdAt, 0L);
+    }
+}
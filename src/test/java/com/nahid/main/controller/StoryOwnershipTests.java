@@ -0,0 +1,118 @@
+package com.nahid.main.controller;
+
+import com.nahid.main.model.Story;
+import com.nahid.main.repository.StoryRepository;
+import com.nahid.main.service.StoryService;
+import com.nahid.main.util.HashUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Edits and deletes are single statements that match the author hash, so only the author
+ * (or, for deletes, an admin) changes a story; everyone else gets 0 rows and a 403.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StoryOwnershipTests {
+
+    @Autowired
+    private StoryService storyService;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private HashUtil hashUtil;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private UUID storyId;
+
+    @BeforeEach
+    void saveAlicesStory() {
+        Story story = story("Original title");
+        story.setStoryBy("alice");
+        storyService.saveStory(story);
+        storyId = story.getStoryId();
+    }
+
+    @AfterEach
+    void deleteStory() {
+        storyRepository.deleteStoryByStoryId(storyId, null, true);
+    }
+
+    @Test
+    void authorUpdatesTheStoryAndBumpsItsVersion() {
+        long version = storyRepository.findStoryStampByStoryId(storyId).getVersion();
+
+        int updated = storyRepository.updateStoryContent(storyId, hashUtil.hash("alice"), "Mr. Rahman", "New title",
+                "New body", "New body", false, LocalDateTime.now());
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(storyRepository.findStoryStampByStoryId(storyId).getVersion()).isEqualTo(version + 1);
+        assertThat(storyRepository.findStoryByStoryId(storyId).getTitle()).isEqualTo("New title");
+    }
+
+    @Test
+    void otherUsersCannotUpdateOrDeleteTheStory() {
+        long version = storyRepository.findStoryStampByStoryId(storyId).getVersion();
+
+        assertThat(storyRepository.updateStoryContent(storyId, hashUtil.hash("bob"), "Mr. Rahman", "Stolen title",
+                "Stolen body", "Stolen body", false, LocalDateTime.now())).isZero();
+        assertThat(storyRepository.deleteStoryByStoryId(storyId, hashUtil.hash("bob"), false)).isZero();
+        assertThat(storyService.updateStory(storyId, "bob", story("Stolen title"))).isFalse();
+        assertThat(storyService.deleteStory(storyId, "bob", false)).isFalse();
+
+        Story unchanged = storyRepository.findStoryByStoryId(storyId);
+        assertThat(unchanged.getTitle()).isEqualTo("Original title");
+        assertThat(unchanged.getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void adminDeletesAnyStory() {
+        assertThat(storyService.deleteStory(storyId, "admin", true)).isTrue();
+        assertThat(storyRepository.findStoryByStoryId(storyId)).isNull();
+    }
+
+    @Test
+    void controllerAnswersForbiddenToOtherUsers() throws Exception {
+        mockMvc.perform(get("/user/story/{storyId}/edit", storyId).with(user("bob").roles("USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/user/story/{storyId}/edit", storyId).with(user("bob").roles("USER")).with(csrf())
+                        .param("storyFor", "Mr. Rahman").param("title", "Stolen title")
+                        .param("description", "Stolen body").param("isPositive", "false"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/story/{storyId}/delete", storyId).with(user("bob").roles("USER")).with(csrf()))
+                .andExpect(status().isForbidden());
+
+        assertThat(storyRepository.findStoryByStoryId(storyId).getTitle()).isEqualTo("Original title");
+        mockMvc.perform(post("/story/{storyId}/delete", storyId).with(user("alice").roles("USER")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        assertThat(storyRepository.findStoryByStoryId(storyId)).isNull();
+    }
+
+    private static Story story(String title) {
+        Story story = new Story();
+        story.setStoryFor("Mr. Rahman");
+        story.setTitle(title);
+        story.setDescription("Body of " + title);
+        story.setIsPositive(true);
+        return story;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nahid.main.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedBitmapTests {
+
+    @Test
+    void matchesABitSetAcrossArrayAndBitsetContainers() {
+        Random random = new Random(11);
+        CompressedBitmap sparse = new CompressedBitmap();
+        CompressedBitmap dense = new CompressedBitmap();
+        BitSet sparseExpected = new BitSet();
+        BitSet denseExpected = new BitSet();
+        for (int i = 0; i < 200_000; i++) {
+            // Dense values fill the first key's container well past the array limit, sparse ones spread out
+            int denseValue = random.nextInt(3 * 65536);
+            int sparseValue = random.nextInt(1 << 24);
+            dense.add(denseValue);
+            denseExpected.set(denseValue);
+            if (i % 20 == 0) {
+                sparse.add(sparseValue);
+                sparseExpected.set(sparseValue);
+            }
+        }
+        for (int i = 0; i < 150_000; i++) {
+            int value = random.nextInt(3 * 65536);
+            dense.remove(value);
+            denseExpected.clear(value);
+        }
+
+        assertThat(dense.getCardinality()).isEqualTo(denseExpected.cardinality());
+        assertThat(sparse.getCardinality()).isEqualTo(sparseExpected.cardinality());
+        assertThat(dense.contains(denseExpected.nextSetBit(0))).isTrue();
+        assertThat(dense.contains(denseExpected.nextClearBit(0))).isFalse();
+
+        BitSet both = (BitSet) denseExpected.clone();
+        both.and(sparseExpected);
+        assertThat(dense.and(sparse).getCardinality()).isEqualTo(both.cardinality());
+        assertThat(dense.and(dense).getCardinality()).isEqualTo(denseExpected.cardinality());
+    }
+
+    @Test
+    void pagesFromTheLargestValueDown() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 200_000; value += 3) {
+            bitmap.add(value);
+        }
+        int largest = 199_998;
+
+        assertThat(bitmap.descending(0, 3)).containsExactly(largest, largest - 3, largest - 6);
+        // Skips whole containers and whole bitset words to reach a deep page
+        assertThat(bitmap.descending(50_000, 2)).containsExactly(largest - 150_000, largest - 150_003);
+        assertThat(bitmap.descending(66_666, 5)).containsExactly(0);
+        assertThat(bitmap.descending(70_000, 5)).isEmpty();
+        assertThat(bitmap.descending(Integer.MAX_VALUE, 5)).isEmpty();
+        assertThatThrownBy(() -> bitmap.descending(-4, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.nahid.main.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoryFacetIndexTests {
+
+    private final StoryFacetIndex index = new StoryFacetIndex();
+
+    @Test
+    void filtersNewestFirstAndCountsEachFacetUnderTheOtherOne() {
+        UUID rahmanGood = UUID.randomUUID();
+        UUID rahmanBad = UUID.randomUUID();
+        UUID karimGood = UUID.randomUUID();
+        UUID rahmanBetter = UUID.randomUUID();
+        index.add(rahmanGood, "Mr. Rahman", true);
+        index.add(rahmanBad, "mr rahman", false);
+        index.add(karimGood, "Mr. Karim", true);
+        index.add(rahmanBetter, "Mr. Rahman", true);
+
+        StoryFacetIndex.Selection selection = index.select(true, "MR. RAHMAN");
+        StorySearchIndex.Hits hits = index.find(selection, 0, 10);
+        StoryFacetIndex.Facets facets = selection.getFacets();
+
+        assertThat(hits.getStoryIds()).containsExactly(rahmanBetter, rahmanGood);
+        assertThat(hits.getTotal()).isEqualTo(2);
+        // Sentiments of Mr. Rahman's stories, and names among positive stories
+        assertThat(facets.getPositive()).isEqualTo(2);
+        assertThat(facets.getNegative()).isEqualTo(1);
+        assertThat(facets.getNames()).containsExactly(
+                new StoryFacetIndex.NameCount("Mr. Rahman", 2, true),
+                new StoryFacetIndex.NameCount("Mr. Karim", 1, false));
+    }
+
+    @Test
+    void editsMoveTheStoryAndKeepItsPlace() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.add(first, "Ms. Sultana", true);
+        index.add(second, "Ms. Sultana", true);
+
+        index.add(first, "Ms. Rahima", false);
+
+        assertThat(index.find(index.select(null, null), 0, 10).getStoryIds()).containsExactly(second, first);
+        assertThat(index.find(index.select(true, null), 0, 10).getStoryIds()).containsExactly(second);
+        assertThat(index.find(index.select(false, "Ms. Rahima"), 0, 10).getStoryIds()).containsExactly(first);
+
+        index.remove(second);
+
+        StoryFacetIndex.Facets facets = index.select(null, null).getFacets();
+        assertThat(facets.getPositive()).isZero();
+        assertThat(facets.getNames()).extracting(StoryFacetIndex.NameCount::getName).containsExactly("Ms. Rahima");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void backdatedStoriesTakeTheirPlaceOnceReordered() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID recent = UUID.randomUUID();
+        UUID older = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+        UUID edited = UUID.randomUUID();
+        index.add(edited, "Mr. Karim", true, now.minusDays(2));
+        index.add(recent, "Mr. Karim", true, now);
+        // Imported afterwards, but written years ago
+        index.add(oldest, "Mr. Karim", true, now.minusYears(3));
+        index.add(older, "Mr. Karim", false, now.minusYears(1));
+        index.add(edited, "Mr. Karim", false);
+
+        assertThat(index.find(index.select(null, "Mr. Karim"), 0, 10).getStoryIds())
+                .containsExactly(older, oldest, recent, edited);
+
+        index.reorder();
+
+        assertThat(index.find(index.select(null, "Mr. Karim"), 0, 10).getStoryIds())
+                .containsExactly(recent, edited, older, oldest);
+        assertThat(index.find(index.select(false, null), 0, 1).getStoryIds()).containsExactly(edited);
+        assertThat(index.find(index.select(true, "mr karim"), 0, 10).getStoryIds()).containsExactly(recent, oldest);
+        assertThat(index.select(null, null).getFacets().getNegative()).isEqualTo(2);
+
+        UUID posted = UUID.randomUUID();
+        index.add(posted, "Mr. Karim", true, now.plusMinutes(1));
+        index.remove(oldest);
+        assertThat(index.find(index.select(true, null), 0, 10).getStoryIds()).containsExactly(posted, recent);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void countsOnlyTheTestedStoriesOfASearch() {
+        StorySearchIndex search = new StorySearchIndex();
+        UUID lectures = UUID.randomUUID();
+        UUID labs = UUID.randomUUID();
+        for (UUID storyId : new UUID[]{lectures, labs, UUID.randomUUID()}) {
+            search.index(storyId, "Mr. Karim", "Course", storyId == lectures ? "Great lectures." : "Great labs.");
+        }
+        index.add(lectures, "Mr. Karim", true);
+        index.add(labs, "Mr. Karim", false);
+
+        StoryFacetIndex.Selection selection = index.selectAmongMatches(false, null);
+        StorySearchIndex.Hits hits = search.search("great", 0, 10, selection);
+
+        assertThat(hits.getStoryIds()).containsExactly(labs);
+        assertThat(hits.getTotal()).isEqualTo(1);
+        assertThat(selection.getFacets().getPositive()).isEqualTo(1);
+        assertThat(selection.getFacets().getNegative()).isEqualTo(1);
+
+        StoryFacetIndex.Selection none = index.selectAmongMatches(null, null);
+        search.search("nothing", 0, 10, none);
+        assertThat(none.getFacets().getNames()).isEmpty();
+    }
+}
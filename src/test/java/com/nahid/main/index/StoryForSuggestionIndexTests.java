@@ -0,0 +1,50 @@
+package com.nahid.main.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoryForSuggestionIndexTests {
+
+    private final StoryForSuggestionIndex index = new StoryForSuggestionIndex();
+
+    @Test
+    void suggestsNamesByAnyWordMostStoriesFirst() {
+        index.add(UUID.randomUUID(), "Mr. Rahman");
+        index.add(UUID.randomUUID(), "mr  rahman");
+        index.add(UUID.randomUUID(), "Ms. Rahima");
+        index.add(UUID.randomUUID(), "Mr. Karim");
+
+        assertThat(index.suggest("rah", 10)).containsExactly(
+                new StoryForSuggestionIndex.Suggestion("Mr. Rahman", 2),
+                new StoryForSuggestionIndex.Suggestion("Ms. Rahima", 1));
+        assertThat(index.suggest("Mr. R", 10)).extracting(StoryForSuggestionIndex.Suggestion::getName)
+                .containsExactly("Mr. Rahman");
+        assertThat(index.suggest("mr", 1)).hasSize(1);
+        assertThat(index.suggest("x", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void followsEditsAndDeletions() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.add(first, "Dr. Hasan");
+        index.add(second, "Dr. Hasan");
+        index.add(first, "Dr. Hossain");
+
+        assertThat(index.suggest("dr h", 10)).extracting(StoryForSuggestionIndex.Suggestion::getCount)
+                .containsExactly(1, 1);
+
+        index.remove(first);
+        index.remove(second);
+        index.remove(UUID.randomUUID());
+
+        assertThat(index.suggest("dr", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+        // Every node but the root was pruned
+        assertThat(index.getNodeCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.nahid.main.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StorySearchIndexTests {
+
+    private final StorySearchIndex index = new StorySearchIndex();
+
+    @Test
+    void ranksStoryForMatchesAboveDescriptionMatches() {
+        UUID mentioned = UUID.randomUUID();
+        UUID about = UUID.randomUUID();
+        index.index(mentioned, "Ms. Sultana", "Group work", "We compared notes with Mr. Rahman's class.");
+        index.index(about, "Mr. Rahman", "Great Teaching", "Clear and patient lectures.");
+
+        StorySearchIndex.Hits hits = index.search("rahman", 0, 10);
+
+        assertThat(hits.getTotal()).isEqualTo(2);
+        assertThat(hits.getStoryIds()).containsExactly(about, mentioned);
+    }
+
+    @Test
+    void requiresEveryTermAndTreatsTheLastOneAsPrefix() {
+        UUID lectures = UUID.randomUUID();
+        index.index(lectures, "Mr. Karim", "Too Theoretical", "His lectures lack examples.");
+        index.index(UUID.randomUUID(), "Mr. Karim", "Friendly", "Always approachable.");
+
+        assertThat(index.search("karim lect", 0, 10).getStoryIds()).containsExactly(lectures);
+        assertThat(index.search("kar", 0, 10).getTotal()).isEqualTo(2);
+        assertThat(index.search("karim nothing", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisibleToSearch() {
+        UUID storyId = UUID.randomUUID();
+        index.index(storyId, "Dr. Hasan", "Old title", "Original body.");
+        index.index(storyId, "Dr. Hasan", "New title", "Edited body.");
+
+        assertThat(index.search("original", 0, 10).getTotal()).isZero();
+        assertThat(index.search("edited", 0, 10).getStoryIds()).containsExactly(storyId);
+
+        index.remove(storyId);
+
+        assertThat(index.search("hasan", 0, 10).getTotal()).isZero();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void pageFarPastTheEndOnlyCountsTheHits() {
+        for (int i = 0; i < 10; i++) {
+            index.index(UUID.randomUUID(), "Ms. Rahima", "Story " + i, "Body.");
+        }
+
+        StorySearchIndex.Hits farPage = index.search("rahima", 2_000_000_000, 4);
+        StorySearchIndex.Hits lastOffset = index.search("rahima", Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertThat(farPage.getStoryIds()).isEmpty();
+        assertThat(farPage.getTotal()).isEqualTo(10);
+        assertThat(lastOffset.getStoryIds()).isEmpty();
+        assertThat(lastOffset.getTotal()).isEqualTo(10);
+        assertThatThrownBy(() -> index.search("rahima", -4, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void returnsTheRequestedWindowOfRankedHits() {
+        for (int i = 0; i < 10; i++) {
+            index.index(UUID.randomUUID(), "Ms. Rahima", "Story " + i, "Body.");
+        }
+
+        StorySearchIndex.Hits firstPage = index.search("rahima", 0, 4);
+        StorySearchIndex.Hits lastPage = index.search("rahima", 8, 4);
+
+        assertThat(firstPage.getTotal()).isEqualTo(10);
+        assertThat(firstPage.getStoryIds()).hasSize(4);
+        assertThat(lastPage.getStoryIds()).hasSize(2).doesNotContainAnyElementsOf(firstPage.getStoryIds());
+        assertThat(StorySearchIndex.tokenize("Mr. Rahman's")).isEqualTo(List.of("mr", "rahman", "s"));
+    }
+}
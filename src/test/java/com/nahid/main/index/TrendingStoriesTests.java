@@ -0,0 +1,60 @@
+package com.nahid.main.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingStoriesTests {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final TrendingStories trending = new TrendingStories(3, Duration.ofHours(1));
+    private final long now = System.currentTimeMillis();
+
+    @Test
+    void ranksByViewsAndHalvesOldViewsEveryHalfLife() {
+        UUID yesterday = UUID.randomUUID();
+        UUID lastHour = UUID.randomUUID();
+        UUID current = UUID.randomUUID();
+        trending.add(yesterday, 100, now);
+        trending.add(lastHour, 30, now + 23 * HOUR);
+        trending.add(current, 20, now + 24 * HOUR);
+
+        // 100 views a day ago weigh less than one today, 30 an hour ago count as 15
+        assertThat(trending.top(3)).containsExactly(current, lastHour, yesterday);
+    }
+
+    @Test
+    void keepsRankingAcrossRescaling() {
+        UUID old = UUID.randomUUID();
+        UUID recent = UUID.randomUUID();
+        trending.add(old, 1_000, now);
+        trending.add(recent, 10, now + 100 * HOUR);
+        trending.add(old, 1, now + 101 * HOUR);
+
+        assertThat(trending.top(2)).containsExactly(recent, old);
+    }
+
+    @Test
+    void replacesTheLowestStoryWhenFull() {
+        UUID popular = UUID.randomUUID();
+        UUID steady = UUID.randomUUID();
+        UUID fading = UUID.randomUUID();
+        UUID newcomer = UUID.randomUUID();
+        trending.add(popular, 50, now);
+        trending.add(steady, 20, now);
+        trending.add(fading, 5, now);
+        trending.add(newcomer, 1, now);
+
+        assertThat(trending.size()).isEqualTo(3);
+        // The newcomer inherits the evicted score, so it ranks just above it
+        assertThat(trending.top(3)).containsExactly(popular, steady, newcomer);
+
+        trending.remove(popular);
+
+        assertThat(trending.top(10)).containsExactly(steady, newcomer);
+    }
+}
@@ -0,0 +1,33 @@
+package com.nahid.main.metrics;
+
+import com.nahid.main.model.Story;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoryMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StoryMetrics metrics = new StoryMetrics(registry);
+
+    @Test
+    void descriptionsAreMeasuredInUtf8Bytes() {
+        String[] descriptions = {"plain ascii", "café naïve", "ভালো লাগা", "emoji 😀 and a lone \uD800 surrogate"};
+        long expected = 0;
+        for (String description : descriptions) {
+            Story story = new Story();
+            story.setDescription(description);
+            metrics.recordDescription(story);
+            expected += description.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        DistributionSummary bytes = registry.get("stories.description.bytes").summary();
+        assertThat(bytes.count()).isEqualTo(descriptions.length);
+        assertThat((long) bytes.totalAmount()).isEqualTo(expected);
+        assertThat(bytes.getId().getBaseUnit()).isEqualTo("bytes");
+    }
+}
@@ -0,0 +1,163 @@
+package com.nahid.main.repository;
+
+import com.nahid.main.util.TextCompression;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every {@link StoryRepository} query, update and delete, captures the SQL Hibernate
+ * sends and checks H2's plan for it: no table scans, and every index access either seeks on a condition
+ * or reads the index in sort order under a row limit.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.nahid.main.repository.StoryRepositoryQueryPlanTests$RecordingStatementInspector")
+@Transactional
+class StoryRepositoryQueryPlanTests {
+
+    /** Methods that read the whole table on purpose. */
+    private static final Set<String> FULL_SCANS = Set.of("streamAllByOrderByCreatedAtAscStoryIdAsc");
+
+    private static final Pattern INDEX_ACCESS = Pattern.compile("/\\* PUBLIC\\.(\\w+)(:[^*]*)? \\*/");
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertStories() {
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), "Person " + (i % 50), "author-" + (i % 100), "Title " + i,
+                    TextCompression.compress("Body " + i), "Body " + i, i % 2 == 0, Timestamp.valueOf(start.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into story_table (story_id, story_for, story_by, title, description, excerpt, "
+                + "is_positive, created_at) values (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID storyId = UUID.randomUUID();
+        Pageable page = PageRequest.of(0, 4);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findStoriesByStoryBy", () -> {
+            storyRepository.findStoriesByStoryBy("author-1");
+            storyRepository.findStoriesByStoryBy("author-1", page);
+        });
+        queries.put("findStoryByStoryId", () -> storyRepository.findStoryByStoryId(storyId));
+        queries.put("findStoryStampByStoryId", () -> storyRepository.findStoryStampByStoryId(storyId));
+        queries.put("updateStoryContent", () -> storyRepository.updateStoryContent(storyId, "author-1", "Person 1",
+                "Title", "Body", "Body", true, now));
+        queries.put("deleteStoryByStoryId", () -> {
+            storyRepository.deleteStoryByStoryId(storyId, "author-1", false);
+            storyRepository.deleteStoryByStoryId(storyId, null, true);
+        });
+        queries.put("findStorySummariesByOrderByCreatedAtDescStoryIdDesc",
+                () -> storyRepository.findStorySummariesByOrderByCreatedAtDescStoryIdDesc(page));
+        queries.put("findStorySummariesAfter", () -> storyRepository.findStorySummariesAfter(now, storyId, page));
+        queries.put("findStorySummariesBefore", () -> storyRepository.findStorySummariesBefore(now, storyId, page));
+        queries.put("findStorySummariesByStoryByOrderByCreatedAtDescStoryIdDesc",
+                () -> storyRepository.findStorySummariesByStoryByOrderByCreatedAtDescStoryIdDesc("author-1", page));
+        queries.put("findStorySummariesByStoryByAfter",
+                () -> storyRepository.findStorySummariesByStoryByAfter("author-1", now, storyId, page));
+        queries.put("findStorySummariesByStoryByBefore",
+                () -> storyRepository.findStorySummariesByStoryByBefore("author-1", now, storyId, page));
+        queries.put("findStorySummariesByStoryIdIn",
+                () -> storyRepository.findStorySummariesByStoryIdIn(List.of(storyId, UUID.randomUUID())));
+        queries.put("streamForExport", () -> {
+            drain(storyRepository.streamForExport(now.minusDays(1), now, null));
+            drain(storyRepository.streamForExport(now.minusDays(1), now, "Person 1"));
+        });
+
+        Set<String> declared = Arrays.stream(StoryRepository.class.getDeclaredMethods())
+                .map(Method::getName)
+                .filter(name -> !FULL_SCANS.contains(name))
+                .collect(Collectors.toSet());
+        assertThat(queries.keySet())
+                .as("every StoryRepository method needs a query plan check")
+                .containsExactlyInAnyOrderElementsOf(declared);
+
+        queries.forEach((method, query) -> {
+            RecordingStatementInspector.STATEMENTS.clear();
+            query.run();
+            assertThat(RecordingStatementInspector.STATEMENTS).as(method).isNotEmpty();
+            for (String sql : RecordingStatementInspector.STATEMENTS) {
+                assertUsesIndex(method, sql);
+            }
+        });
+    }
+
+    private void assertUsesIndex(String method, String sql) {
+        String plan = jdbcTemplate.execute("explain " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        });
+
+        assertThat(plan).as("%s plan%n%s", method, plan).doesNotContain("tableScan");
+        Matcher access = INDEX_ACCESS.matcher(plan);
+        assertThat(access.find()).as("%s plan%n%s", method, plan).isTrue();
+        boolean seeks = access.group(2) != null;
+        boolean sortedWithLimit = plan.contains("/* index sorted */") && plan.contains("FETCH FIRST");
+        assertThat(seeks || sortedWithLimit)
+                .as("%s reads a whole index%n%s", method, plan)
+                .isTrue();
+    }
+
+    /** Stream queries are lazy; they must be consumed to send their SQL. */
+    private static void drain(Stream<?> stream) {
+        try (stream) {
+            stream.forEach(row -> { });
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select") || sql.startsWith("update") || sql.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nahid.main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nahid.main.model.Story;
+import com.nahid.main.model.StoryImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class StoryImportServiceTests {
+
+    private static final String HEADER = "storyFor,storyBy,title,description,isPositive,createdAt\n";
+
+    private final StoryService storyService = mock(StoryService.class);
+    private final StoryImportService importService =
+            new StoryImportService(storyService, new ObjectMapper().registerModule(new JavaTimeModule()), 3);
+
+    @Test
+    void oneBadRowInAChunkIsRejectedAndTheOthersAreStored() throws IOException {
+        List<String> saved = new CopyOnWriteArrayList<>();
+        doAnswer(call -> {
+            List<Story> stories = call.getArgument(0);
+            if (stories.stream().anyMatch(story -> story.getTitle().equals("bad"))) {
+                throw new DataIntegrityViolationException("rejected", new IllegalStateException("value too long"));
+            }
+            stories.forEach(story -> saved.add(story.getTitle()));
+            return null;
+        }).when(storyService).saveStories(anyList());
+
+        StoryImportResult result = importService.importCsv(upload(HEADER
+                + "Mr. Rahman,alice,first,Body,true,2020-01-01T10:00:00\n"
+                + "Mr. Rahman,alice,bad,Body,true,\n"
+                + "Mr. Rahman,alice,third,Body,false,\n"
+                + "Mr. Rahman,alice,fourth,Body,false,\n"));
+
+        assertThat(saved).containsExactly("first", "third", "fourth");
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly(new StoryImportResult.RowError(2, "Could not be stored: value too long"));
+        // The first row is backdated: the filtered listings are put back in creation order
+        verify(storyService).reorderFilteredListings();
+    }
+
+    @Test
+    void reportsTheFirstThousandErrorsButCountsThemAll() throws IOException {
+        StringBuilder body = new StringBuilder(HEADER);
+        for (int i = 0; i < 1500; i++) {
+            body.append("Mr. Rahman,alice,,Body,true,\n");
+        }
+        body.append("Mr. Rahman,alice,valid,Body,true,\n");
+
+        StoryImportResult result = importService.importCsv(upload(body.toString()));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1500);
+        assertThat(result.getErrors()).hasSize(1000);
+        assertThat(result.getErrors().get(0)).isEqualTo(new StoryImportResult.RowError(1, "title is required"));
+        assertThat(result.getErrors().get(999).getRow()).isEqualTo(1000);
+    }
+
+    @Test
+    void readsNdjsonAndReportsRowsThatDoNotMap() throws IOException {
+        List<String> saved = new CopyOnWriteArrayList<>();
+        doAnswer(call -> {
+            List<Story> stories = call.getArgument(0);
+            stories.forEach(story -> saved.add(story.getTitle()));
+            return null;
+        }).when(storyService).saveStories(anyList());
+
+        StoryImportResult result = importService.importJson(upload("""
+                {"storyFor":"Mr. Rahman","storyBy":"alice","title":"first","description":"Body","isPositive":true}
+                {"storyFor":"Mr. Rahman","storyBy":"alice","title":"second","description":"Body","isPositive":"maybe"}
+                {"storyFor":"Mr. Rahman","storyBy":"alice","title":"third","description":"Body","isPositive":false}
+                """));
+
+        assertThat(saved).containsExactly("first", "third");
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(StoryImportResult.RowError::getRow).containsExactly(2L);
+    }
+
+    private static ByteArrayInputStream upload(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
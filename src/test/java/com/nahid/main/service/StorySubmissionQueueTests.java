@@ -0,0 +1,168 @@
+package com.nahid.main.service;
+
+import com.nahid.main.model.Story;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StorySubmissionQueueTests {
+
+    private final StoryService storyService = mock(StoryService.class);
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private StorySubmissionQueue queue;
+
+    @AfterEach
+    void closeQueue() throws InterruptedException {
+        if (queue != null) queue.close();
+    }
+
+    @Test
+    void storiesQueuedWhileTheWriterIsBusyAreCommittedTogether() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        recordBatches(writing, release);
+        queue = asyncQueue(10);
+
+        queue.submit("alice", story("first"));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.submit("bob", story("second"));
+        queue.submit("alice", story("third"));
+        queue.submit("carol", story("fourth"));
+        release.countDown();
+        queue.close();
+
+        assertThat(batches).containsExactly(List.of("first"), List.of("second", "third", "fourth"));
+        assertThat(queue.getWrittenCount()).isEqualTo(4);
+        assertThat(queue.getBatchCount()).isEqualTo(2);
+        verify(storyService, never()).saveStory(any());
+    }
+
+    @Test
+    void pendingStoriesAreListedForTheirAuthorUntilCommitted() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        recordBatches(writing, release);
+        queue = asyncQueue(10);
+
+        queue.submit("alice", story("first"));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.submit("alice", story("second"));
+        queue.submit("bob", story("other"));
+
+        assertThat(queue.getPendingStories("alice")).extracting(Story::getTitle).containsExactly("second", "first");
+        assertThat(queue.getPendingStories("alice").get(0).getExcerpt()).isNotNull();
+        assertThat(queue.getPendingStories("bob")).extracting(Story::getTitle).containsExactly("other");
+        assertThat(queue.getPendingStories("carol")).isEmpty();
+
+        release.countDown();
+        queue.close();
+
+        assertThat(queue.getPendingStories("alice")).isEmpty();
+        assertThat(queue.getPendingStories("bob")).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsRetriedStoryByStory() throws Exception {
+        doThrow(new IllegalStateException("batch failed")).when(storyService).saveStories(anyList());
+        List<String> saved = new CopyOnWriteArrayList<>();
+        doAnswer(call -> {
+            Story story = call.getArgument(0);
+            if (story.getTitle().equals("bad")) throw new IllegalStateException("bad story");
+            assertThat(story.getStoryId()).isNull();
+            assertThat(story.getStoryBy()).isEqualTo("alice");
+            saved.add(story.getTitle());
+            return null;
+        }).when(storyService).saveStory(any());
+        queue = asyncQueue(10);
+
+        Story good = story("good");
+        // What a failed batch may leave behind on the entity
+        good.setStoryId(UUID.randomUUID());
+        good.setVersion(0L);
+        queue.submit("alice", good);
+        queue.submit("alice", story("bad"));
+        queue.close();
+
+        assertThat(saved).containsExactly("good");
+        assertThat(queue.getWrittenCount()).isEqualTo(1);
+        assertThat(queue.getFailedCount()).isEqualTo(1);
+        assertThat(queue.getPendingStories("alice")).isEmpty();
+    }
+
+    @Test
+    void fullQueueRefusesAfterTheOfferTimeout() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        recordBatches(writing, release);
+        queue = asyncQueue(1);
+
+        assertThat(queue.submit("alice", story("writing"))).isTrue();
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queue.submit("alice", story("queued"))).isTrue();
+        assertThat(queue.submit("alice", story("refused"))).isFalse();
+
+        assertThat(queue.getRejectedCount()).isEqualTo(1);
+        assertThat(queue.getPendingStories("alice")).extracting(Story::getTitle).containsExactly("queued", "writing");
+        release.countDown();
+    }
+
+    @Test
+    void savesDirectlyWhenSynchronousOrClosed() throws Exception {
+        queue = new StorySubmissionQueue(storyService, false, 10, 10, Duration.ofMillis(50));
+        queue.submit("alice", story("sync"));
+        verify(storyService).saveStory(any());
+
+        StorySubmissionQueue async = asyncQueue(10);
+        async.close();
+        Story late = story("late");
+        assertThat(async.submit("bob", late)).isTrue();
+
+        verify(storyService).saveStory(late);
+        assertThat(late.getStoryBy()).isEqualTo("bob");
+        assertThat(async.getQueuedCount()).isZero();
+    }
+
+    private StorySubmissionQueue asyncQueue(int capacity) {
+        return new StorySubmissionQueue(storyService, true, capacity, 10, Duration.ofMillis(50));
+    }
+
+    /** Records the titles of every batch; the first one waits for {@code release}. */
+    private void recordBatches(CountDownLatch writing, CountDownLatch release) {
+        doAnswer(call -> {
+            List<Story> stories = call.getArgument(0);
+            List<String> titles = new ArrayList<>();
+            stories.forEach(story -> titles.add(story.getTitle()));
+            batches.add(titles);
+            if (writing.getCount() > 0) {
+                writing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(storyService).saveStories(anyList());
+    }
+
+    private static Story story(String title) {
+        Story story = new Story();
+        story.setStoryFor("Mr. Rahman");
+        story.setTitle(title);
+        story.setDescription("Body of " + title);
+        story.setIsPositive(true);
+        return story;
+    }
+}
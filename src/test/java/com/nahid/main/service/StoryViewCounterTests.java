@@ -0,0 +1,66 @@
+package com.nahid.main.service;
+
+import com.nahid.main.index.TrendingStories;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class StoryViewCounterTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TrendingStories trendingStories = mock(TrendingStories.class);
+    private final StoryViewCounter counter = new StoryViewCounter(jdbcTemplate,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), trendingStories);
+    /** view_count per story, as the batches have written it. */
+    private final Map<UUID, Long> viewCounts = new ConcurrentHashMap<>();
+
+    @Test
+    void viewsOfAFailedFlushAreCountedOnceInTheTableAndTheRanking() {
+        AtomicInteger batches = new AtomicInteger();
+        doAnswer(call -> {
+            if (batches.getAndIncrement() == 0) throw new QueryTimeoutException("database busy");
+            Collection<Object[]> rows = call.getArgument(1);
+            rows.forEach(row -> viewCounts.merge((UUID) row[1], (Long) row[0], Long::sum));
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        UUID storyId = UUID.randomUUID();
+
+        counter.recordView(storyId);
+        counter.recordView(storyId);
+        counter.flush();
+
+        verify(trendingStories, never()).add(any(), anyLong(), anyLong());
+        assertThat(counter.getPendingCount()).isEqualTo(1);
+
+        counter.recordView(storyId);
+        counter.flush();
+        counter.flush();
+
+        assertThat(viewCounts).containsExactly(Map.entry(storyId, 3L));
+        verify(trendingStories, times(1)).add(eq(storyId), eq(3L), anyLong());
+        verify(trendingStories, times(1)).add(any(), anyLong(), anyLong());
+        assertThat(counter.getFlushedCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.nahid.main.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTests {
+
+    @Test
+    void neverMissesAnAddedString() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+        assertThat(filter.getHashCount()).isEqualTo(7);
+        assertThat(filter.getBitCount()).isBetween(95_000L, 96_000L);
+    }
+
+    @Test
+    void falsePositivesStayNearTheRateItWasSizedFor() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) falsePositives++;
+        }
+        assertThat(falsePositives).isBetween(500, 1_500);
+    }
+
+    @Test
+    void emptyFilterContainsNothingAndRejectsBadSizes() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("root")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
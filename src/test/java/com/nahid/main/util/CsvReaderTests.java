@@ -0,0 +1,50 @@
+package com.nahid.main.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTests {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("title,description\nHello,\"One, two\"\n,\n"));
+
+        assertThat(csv.next()).containsExactly("title", "description");
+        assertThat(csv.next()).containsExactly("Hello", "One, two");
+        assertThat(csv.next()).containsExactly("", "");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void unescapesDoubledQuotesAndKeepsLineBreaksInsideQuotes() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("\"He said \"\"hi\"\"\",\"first line\nsecond line\r\nthird\"\n"));
+
+        assertThat(csv.next()).containsExactly("He said \"hi\"", "first line\nsecond line\r\nthird");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void endsRecordsOnCrlfLfOrTheEndOfInput() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\r\nc,d\ne,f"));
+
+        List<String> first = csv.next();
+        assertThat(first).containsExactly("a", "b");
+        assertThat(csv.next()).containsExactly("c", "d");
+        assertThat(csv.next()).containsExactly("e", "f");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void unterminatedQuotedFieldIsAnError() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("ok,fine\n\"never closed,\nrest"));
+
+        assertThat(csv.next()).containsExactly("ok", "fine");
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessage("Unterminated quoted field");
+    }
+}
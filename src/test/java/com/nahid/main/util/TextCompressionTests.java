@@ -0,0 +1,36 @@
+package com.nahid.main.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextCompressionTests {
+
+    @Test
+    void deflatesLongTextAndStoresShortText() {
+        String body = "Clear and patient lectures, always ready to explain again. ".repeat(40);
+        byte[] deflated = TextCompression.compress(body);
+        byte[] stored = TextCompression.compress("Short.");
+
+        assertThat(deflated[0]).isEqualTo(TextCompression.DEFLATED);
+        assertThat(deflated.length).isLessThan(body.length() / 10);
+        assertThat(TextCompression.decompress(deflated)).isEqualTo(body);
+        assertThat(stored[0]).isEqualTo(TextCompression.STORED);
+        assertThat(TextCompression.decompress(stored)).isEqualTo("Short.");
+    }
+
+    @Test
+    void storesTextThatDoesNotCompressAndKeepsEveryCharacter() {
+        // Eighty distinct characters and no repeats: deflate can only add its block overhead
+        StringBuilder distinct = new StringBuilder();
+        for (char c = '0'; c < '0' + 80; c++) distinct.append(c);
+        String incompressible = distinct.toString();
+        String unicode = "Ami tomake bhalobashi 😀 অসাধারণ শিক্ষক ".repeat(20);
+
+        assertThat(TextCompression.compress(incompressible)[0]).isEqualTo(TextCompression.STORED);
+        assertThat(TextCompression.decompress(TextCompression.compress(incompressible))).isEqualTo(incompressible);
+        assertThat(TextCompression.decompress(TextCompression.compress(unicode))).isEqualTo(unicode);
+        assertThat(TextCompression.compress(null)).isNull();
+        assertThat(TextCompression.decompress(TextCompression.compress(""))).isEmpty();
+    }
+}